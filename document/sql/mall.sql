@@ -1505,6 +1505,17 @@ INSERT INTO `pms_product_category_attribute_relation` VALUES (7, 28, 24);
 INSERT INTO `pms_product_category_attribute_relation` VALUES (9, 25, 24);
 INSERT INTO `pms_product_category_attribute_relation` VALUES (10, 25, 25);
 
+-- ----------------------------
+-- Table structure for pms_product_change_log
+-- ----------------------------
+DROP TABLE IF EXISTS `pms_product_change_log`;
+CREATE TABLE `pms_product_change_log`  (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `product_id` bigint(20) NOT NULL COMMENT '发生变更的商品ID',
+  `create_time` datetime NULL DEFAULT NULL,
+  PRIMARY KEY (`id`) USING BTREE
+) ENGINE = InnoDB AUTO_INCREMENT = 1 CHARACTER SET = utf8 COLLATE = utf8_general_ci COMMENT = '商品变更记录，用于增量同步搜索索引' ROW_FORMAT = DYNAMIC;
+
 -- ----------------------------
 -- Table structure for pms_product_full_reduction
 -- ----------------------------
@@ -1669,7 +1680,8 @@ CREATE TABLE `pms_sku_stock`  (
   `promotion_price` decimal(10, 2) NULL DEFAULT NULL COMMENT '单品促销价格',
   `lock_stock` int(11) NULL DEFAULT 0 COMMENT '锁定库存',
   `sp_data` varchar(500) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL COMMENT '商品销售属性，json格式',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_product_id`(`product_id`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 243 CHARACTER SET = utf8 COLLATE = utf8_general_ci COMMENT = 'sku的库存' ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -2,10 +2,11 @@ package com.macro.mall.bo;
 
 import com.macro.mall.model.UmsAdmin;
 import com.macro.mall.model.UmsResource;
+import com.macro.mall.security.component.DynamicSecurityUserDetails;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -14,15 +15,30 @@ import java.util.stream.Collectors;
  * SpringSecurity需要的用户信息封装类
  * Created by macro on 2018/4/26.
  */
-public class AdminUserDetails implements UserDetails {
+public class AdminUserDetails implements DynamicSecurityUserDetails {
     //后台用户
     private final UmsAdmin umsAdmin;
     //拥有资源列表
     private final List<UmsResource> resourceList;
+    //拥有资源ID位图
+    private final BitSet resourceIds;
+    //加载资源前读取的权限版本
+    private final Long permissionEpoch;
 
     public AdminUserDetails(UmsAdmin umsAdmin,List<UmsResource> resourceList) {
+        this(umsAdmin, resourceList, null);
+    }
+
+    public AdminUserDetails(UmsAdmin umsAdmin,List<UmsResource> resourceList,Long permissionEpoch) {
         this.umsAdmin = umsAdmin;
         this.resourceList = resourceList;
+        this.permissionEpoch = permissionEpoch;
+        this.resourceIds = new BitSet();
+        for (UmsResource resource : resourceList) {
+            if (resource.getId() != null && resource.getId() >= 0 && resource.getId() <= Integer.MAX_VALUE) {
+                resourceIds.set(resource.getId().intValue());
+            }
+        }
     }
 
     @Override
@@ -33,6 +49,16 @@ public class AdminUserDetails implements UserDetails {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public BitSet getResourceIds() {
+        return resourceIds;
+    }
+
+    @Override
+    public Long getPermissionEpoch() {
+        return permissionEpoch;
+    }
+
     @Override
     public String getPassword() {
         return umsAdmin.getPassword();
@@ -0,0 +1,62 @@
+package com.macro.mall.component;
+
+import com.macro.mall.common.component.AsyncBatchWriter;
+import com.macro.mall.dao.UmsAdminLoginLogDao;
+import com.macro.mall.model.UmsAdmin;
+import com.macro.mall.model.UmsAdminLoginLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Date;
+
+/**
+ * 后台用户登录记录异步写入，登录记录批量插入，登录时间按用户合并后批量修改
+ * Created by macro on 2026/10/19.
+ */
+@Component
+public class AdminLoginLogWriter {
+    @Autowired
+    private UmsAdminLoginLogDao loginLogDao;
+    @Value("${loginLog.capacity:10000}")
+    private Integer CAPACITY;
+    @Value("${loginLog.batchSize:500}")
+    private Integer BATCH_SIZE;
+    @Value("${loginLog.flushInterval:300}")
+    private Long FLUSH_INTERVAL;
+    private AsyncBatchWriter<UmsAdminLoginLog> loginLogWriter;
+    private AsyncBatchWriter<UmsAdmin> loginTimeWriter;
+
+    @PostConstruct
+    public void init() {
+        loginLogWriter = new AsyncBatchWriter<>("admin-login-log", CAPACITY, BATCH_SIZE, FLUSH_INTERVAL,
+                loginLogDao::insertList, null);
+        loginTimeWriter = new AsyncBatchWriter<>("admin-login-time", CAPACITY, BATCH_SIZE, FLUSH_INTERVAL,
+                loginLogDao::updateLoginTimeList, UmsAdmin::getId);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        loginLogWriter.close();
+        loginTimeWriter.close();
+    }
+
+    /**
+     * 记录后台用户登录
+     */
+    public void write(Long adminId, String ip, String userAgent) {
+        Date now = new Date();
+        UmsAdminLoginLog loginLog = new UmsAdminLoginLog();
+        loginLog.setAdminId(adminId);
+        loginLog.setCreateTime(now);
+        loginLog.setIp(ip);
+        loginLog.setUserAgent(userAgent);
+        loginLogWriter.add(loginLog);
+        UmsAdmin admin = new UmsAdmin();
+        admin.setId(adminId);
+        admin.setLoginTime(now);
+        loginTimeWriter.add(admin);
+    }
+}
@@ -34,7 +34,7 @@ public class UmsResourceController {
     @ResponseBody
     public CommonResult create(@RequestBody UmsResource umsResource) {
         int count = resourceService.create(umsResource);
-        dynamicSecurityMetadataSource.clearDataSource();
+        dynamicSecurityMetadataSource.publishReload();
         if (count > 0) {
             return CommonResult.success(count);
         } else {
@@ -48,7 +48,7 @@ public class UmsResourceController {
     public CommonResult update(@PathVariable Long id,
                                @RequestBody UmsResource umsResource) {
         int count = resourceService.update(id, umsResource);
-        dynamicSecurityMetadataSource.clearDataSource();
+        dynamicSecurityMetadataSource.publishReload();
         if (count > 0) {
             return CommonResult.success(count);
         } else {
@@ -69,7 +69,7 @@ public class UmsResourceController {
     @ResponseBody
     public CommonResult delete(@PathVariable Long id) {
         int count = resourceService.delete(id);
-        dynamicSecurityMetadataSource.clearDataSource();
+        dynamicSecurityMetadataSource.publishReload();
         if (count > 0) {
             return CommonResult.success(count);
         } else {
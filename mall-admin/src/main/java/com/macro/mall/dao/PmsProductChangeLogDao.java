@@ -0,0 +1,26 @@
+package com.macro.mall.dao;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 商品变更记录自定义Dao，用于通知搜索服务增量更新索引
+ * Created by macro on 2026/10/19.
+ */
+public interface PmsProductChangeLogDao {
+    /**
+     * 批量记录商品变更
+     */
+    int insertList(@Param("productIds") List<Long> productIds);
+
+    /**
+     * 记录品牌下所有商品的变更
+     */
+    int insertByBrand(@Param("brandId") Long brandId);
+
+    /**
+     * 记录分类下所有商品的变更
+     */
+    int insertByCategory(@Param("productCategoryId") Long productCategoryId);
+}
@@ -0,0 +1,23 @@
+package com.macro.mall.dao;
+
+import com.macro.mall.model.UmsAdmin;
+import com.macro.mall.model.UmsAdminLoginLog;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 后台用户登录记录自定义Dao
+ * Created by macro on 2026/10/19.
+ */
+public interface UmsAdminLoginLogDao {
+    /**
+     * 批量创建登录记录
+     */
+    int insertList(@Param("list") List<UmsAdminLoginLog> loginLogList);
+
+    /**
+     * 批量修改后台用户登录时间
+     */
+    int updateLoginTimeList(@Param("list") List<UmsAdmin> adminList);
+}
@@ -0,0 +1,24 @@
+package com.macro.mall.service;
+
+import java.util.List;
+
+/**
+ * 商品详情缓存管理Service
+ * Created by macro on 2026/10/19.
+ */
+public interface PmsProductCacheService {
+    /**
+     * 删除商品详情缓存，并通知前台各节点清除本地缓存
+     */
+    void delDetail(List<Long> productIds);
+
+    /**
+     * 删除品牌下所有商品的详情缓存
+     */
+    void delDetailByBrand(List<Long> brandIds);
+
+    /**
+     * 删除前台商品分类树缓存，在事务中调用时于提交后删除
+     */
+    void delCategoryTree();
+}
@@ -1,5 +1,6 @@
 package com.macro.mall.service;
 
+import com.macro.mall.dto.UmsMenuNode;
 import com.macro.mall.model.UmsAdmin;
 import com.macro.mall.model.UmsResource;
 
@@ -54,4 +55,19 @@ public interface UmsAdminCacheService {
      * 设置缓存后台用户资源列表
      */
     void setResourceList(Long adminId, List<UmsResource> resourceList);
+
+    /**
+     * 删除后台菜单树缓存
+     */
+    void delMenuTree();
+
+    /**
+     * 获取缓存后台菜单树
+     */
+    List<UmsMenuNode> getMenuTree();
+
+    /**
+     * 设置缓存后台菜单树
+     */
+    void setMenuTree(List<UmsMenuNode> menuTree);
 }
@@ -2,6 +2,7 @@ package com.macro.mall.service.impl;
 
 import cn.hutool.core.util.StrUtil;
 import com.github.pagehelper.PageHelper;
+import com.macro.mall.dao.PmsProductChangeLogDao;
 import com.macro.mall.dto.PmsBrandParam;
 import com.macro.mall.mapper.PmsBrandMapper;
 import com.macro.mall.mapper.PmsProductMapper;
@@ -10,10 +11,12 @@ import com.macro.mall.model.PmsBrandExample;
 import com.macro.mall.model.PmsProduct;
 import com.macro.mall.model.PmsProductExample;
 import com.macro.mall.service.PmsBrandService;
+import com.macro.mall.service.PmsProductCacheService;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -26,6 +29,10 @@ public class PmsBrandServiceImpl implements PmsBrandService {
     private PmsBrandMapper brandMapper;
     @Autowired
     private PmsProductMapper productMapper;
+    @Autowired
+    private PmsProductCacheService productCacheService;
+    @Autowired
+    private PmsProductChangeLogDao productChangeLogDao;
 
     @Override
     public List<PmsBrand> listAllBrand() {
@@ -58,7 +65,10 @@ public class PmsBrandServiceImpl implements PmsBrandService {
         PmsProductExample example = new PmsProductExample();
         example.createCriteria().andBrandIdEqualTo(id);
         productMapper.updateByExampleSelective(product,example);
-        return brandMapper.updateByPrimaryKeySelective(pmsBrand);
+        productChangeLogDao.insertByBrand(id);
+        int count = brandMapper.updateByPrimaryKeySelective(pmsBrand);
+        productCacheService.delDetailByBrand(Collections.singletonList(id));
+        return count;
     }
 
     @Override
@@ -99,7 +109,9 @@ public class PmsBrandServiceImpl implements PmsBrandService {
         pmsBrand.setShowStatus(showStatus);
         PmsBrandExample pmsBrandExample = new PmsBrandExample();
         pmsBrandExample.createCriteria().andIdIn(ids);
-        return brandMapper.updateByExampleSelective(pmsBrand, pmsBrandExample);
+        int count = brandMapper.updateByExampleSelective(pmsBrand, pmsBrandExample);
+        productCacheService.delDetailByBrand(ids);
+        return count;
     }
 
     @Override
@@ -108,6 +120,8 @@ public class PmsBrandServiceImpl implements PmsBrandService {
         pmsBrand.setFactoryStatus(factoryStatus);
         PmsBrandExample pmsBrandExample = new PmsBrandExample();
         pmsBrandExample.createCriteria().andIdIn(ids);
-        return brandMapper.updateByExampleSelective(pmsBrand, pmsBrandExample);
+        int count = brandMapper.updateByExampleSelective(pmsBrand, pmsBrandExample);
+        productCacheService.delDetailByBrand(ids);
+        return count;
     }
 }
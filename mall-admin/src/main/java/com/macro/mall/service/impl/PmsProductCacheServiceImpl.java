@@ -0,0 +1,65 @@
+package com.macro.mall.service.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import com.macro.mall.common.service.RedisService;
+import com.macro.mall.common.util.TransactionUtil;
+import com.macro.mall.mapper.PmsProductMapper;
+import com.macro.mall.model.PmsProduct;
+import com.macro.mall.model.PmsProductExample;
+import com.macro.mall.service.PmsProductCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 商品详情缓存管理Service实现类
+ * Created by macro on 2026/10/19.
+ */
+@Service
+public class PmsProductCacheServiceImpl implements PmsProductCacheService {
+    @Autowired
+    private RedisService redisService;
+    @Autowired
+    private PmsProductMapper productMapper;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.key.productDetail}")
+    private String REDIS_KEY_PRODUCT_DETAIL;
+    @Value("${redis.key.categoryTree}")
+    private String REDIS_KEY_CATEGORY_TREE;
+    @Value("${redis.channel.productDetail}")
+    private String REDIS_CHANNEL_PRODUCT_DETAIL;
+
+    @Override
+    public void delDetail(List<Long> productIds) {
+        if (CollUtil.isEmpty(productIds)) {
+            return;
+        }
+        List<String> keys = productIds.stream()
+                .map(productId -> REDIS_DATABASE + ":" + REDIS_KEY_PRODUCT_DETAIL + ":" + productId)
+                .collect(Collectors.toList());
+        //事务提交后再清除缓存，避免其他请求将提交前的数据重新缓存
+        TransactionUtil.afterCommit(() -> {
+            redisService.del(keys);
+            redisService.convertAndSend(REDIS_DATABASE + ":" + REDIS_CHANNEL_PRODUCT_DETAIL, CollUtil.join(productIds, ","));
+        });
+    }
+
+    @Override
+    public void delDetailByBrand(List<Long> brandIds) {
+        PmsProductExample example = new PmsProductExample();
+        example.createCriteria().andBrandIdIn(brandIds);
+        List<Long> productIds = productMapper.selectByExample(example).stream()
+                .map(PmsProduct::getId)
+                .collect(Collectors.toList());
+        delDetail(productIds);
+    }
+
+    @Override
+    public void delCategoryTree() {
+        TransactionUtil.afterCommit(() -> redisService.del(REDIS_DATABASE + ":" + REDIS_KEY_CATEGORY_TREE));
+    }
+}
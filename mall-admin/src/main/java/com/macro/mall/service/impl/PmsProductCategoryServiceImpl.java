@@ -3,12 +3,14 @@ package com.macro.mall.service.impl;
 import com.github.pagehelper.PageHelper;
 import com.macro.mall.dao.PmsProductCategoryAttributeRelationDao;
 import com.macro.mall.dao.PmsProductCategoryDao;
+import com.macro.mall.dao.PmsProductChangeLogDao;
 import com.macro.mall.dto.PmsProductCategoryParam;
 import com.macro.mall.dto.PmsProductCategoryWithChildrenItem;
 import com.macro.mall.mapper.PmsProductCategoryAttributeRelationMapper;
 import com.macro.mall.mapper.PmsProductCategoryMapper;
 import com.macro.mall.mapper.PmsProductMapper;
 import com.macro.mall.model.*;
+import com.macro.mall.service.PmsProductCacheService;
 import com.macro.mall.service.PmsProductCategoryService;
 import org.apache.commons.collections.CollectionUtils;
 import org.springframework.beans.BeanUtils;
@@ -34,6 +36,10 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
     private PmsProductCategoryAttributeRelationMapper productCategoryAttributeRelationMapper;
     @Autowired
     private PmsProductCategoryDao productCategoryDao;
+    @Autowired
+    private PmsProductCacheService productCacheService;
+    @Autowired
+    private PmsProductChangeLogDao productChangeLogDao;
     @Override
     public int create(PmsProductCategoryParam pmsProductCategoryParam) {
         PmsProductCategory productCategory = new PmsProductCategory();
@@ -47,6 +53,7 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
         if(!CollectionUtils.isEmpty(productAttributeIdList)){
             insertRelationList(productCategory.getId(), productAttributeIdList);
         }
+        productCacheService.delCategoryTree();
         return count;
     }
 
@@ -78,6 +85,7 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
         PmsProductExample example = new PmsProductExample();
         example.createCriteria().andProductCategoryIdEqualTo(id);
         productMapper.updateByExampleSelective(product,example);
+        productChangeLogDao.insertByCategory(id);
         //同时更新筛选属性的信息
         if(!CollectionUtils.isEmpty(pmsProductCategoryParam.getProductAttributeIdList())){
             PmsProductCategoryAttributeRelationExample relationExample = new PmsProductCategoryAttributeRelationExample();
@@ -89,7 +97,9 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
             relationExample.createCriteria().andProductCategoryIdEqualTo(id);
             productCategoryAttributeRelationMapper.deleteByExample(relationExample);
         }
-        return productCategoryMapper.updateByPrimaryKeySelective(productCategory);
+        int count = productCategoryMapper.updateByPrimaryKeySelective(productCategory);
+        productCacheService.delCategoryTree();
+        return count;
     }
 
     @Override
@@ -103,7 +113,9 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
 
     @Override
     public int delete(Long id) {
-        return productCategoryMapper.deleteByPrimaryKey(id);
+        int count = productCategoryMapper.deleteByPrimaryKey(id);
+        productCacheService.delCategoryTree();
+        return count;
     }
 
     @Override
@@ -117,7 +129,9 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
         productCategory.setNavStatus(navStatus);
         PmsProductCategoryExample example = new PmsProductCategoryExample();
         example.createCriteria().andIdIn(ids);
-        return productCategoryMapper.updateByExampleSelective(productCategory, example);
+        int count = productCategoryMapper.updateByExampleSelective(productCategory, example);
+        productCacheService.delCategoryTree();
+        return count;
     }
 
     @Override
@@ -126,7 +140,9 @@ public class PmsProductCategoryServiceImpl implements PmsProductCategoryService
         productCategory.setShowStatus(showStatus);
         PmsProductCategoryExample example = new PmsProductCategoryExample();
         example.createCriteria().andIdIn(ids);
-        return productCategoryMapper.updateByExampleSelective(productCategory, example);
+        int count = productCategoryMapper.updateByExampleSelective(productCategory, example);
+        productCacheService.delCategoryTree();
+        return count;
     }
 
     @Override
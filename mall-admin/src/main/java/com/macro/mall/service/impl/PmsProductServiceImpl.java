@@ -9,6 +9,7 @@ import com.macro.mall.dto.PmsProductQueryParam;
 import com.macro.mall.dto.PmsProductResult;
 import com.macro.mall.mapper.*;
 import com.macro.mall.model.*;
+import com.macro.mall.service.PmsProductCacheService;
 import com.macro.mall.service.PmsProductService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +20,7 @@ import org.springframework.util.CollectionUtils;
 import java.lang.reflect.Method;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -64,6 +66,10 @@ public class PmsProductServiceImpl implements PmsProductService {
     private PmsProductDao productDao;
     @Autowired
     private PmsProductVertifyRecordDao productVertifyRecordDao;
+    @Autowired
+    private PmsProductCacheService productCacheService;
+    @Autowired
+    private PmsProductChangeLogDao productChangeLogDao;
 
     @Override
     public int create(PmsProductParam productParam) {
@@ -90,6 +96,9 @@ public class PmsProductServiceImpl implements PmsProductService {
         relateAndInsertList(subjectProductRelationDao, productParam.getSubjectProductRelationList(), productId);
         //关联优选
         relateAndInsertList(prefrenceAreaProductRelationDao, productParam.getPrefrenceAreaProductRelationList(), productId);
+        //记录商品变更并通知前台更新商品搜索索引
+        productChangeLogDao.insertList(Collections.singletonList(productId));
+        productCacheService.delDetail(Collections.singletonList(productId));
         count = 1;
         return count;
     }
@@ -156,6 +165,8 @@ public class PmsProductServiceImpl implements PmsProductService {
         prefrenceAreaExample.createCriteria().andProductIdEqualTo(id);
         prefrenceAreaProductRelationMapper.deleteByExample(prefrenceAreaExample);
         relateAndInsertList(prefrenceAreaProductRelationDao, productParam.getPrefrenceAreaProductRelationList(), id);
+        productChangeLogDao.insertList(Collections.singletonList(id));
+        productCacheService.delDetail(Collections.singletonList(id));
         count = 1;
         return count;
     }
@@ -249,6 +260,8 @@ public class PmsProductServiceImpl implements PmsProductService {
             list.add(record);
         }
         productVertifyRecordDao.insertList(list);
+        productChangeLogDao.insertList(ids);
+        productCacheService.delDetail(ids);
         return count;
     }
 
@@ -258,7 +271,10 @@ public class PmsProductServiceImpl implements PmsProductService {
         record.setPublishStatus(publishStatus);
         PmsProductExample example = new PmsProductExample();
         example.createCriteria().andIdIn(ids);
-        return productMapper.updateByExampleSelective(record, example);
+        int count = productMapper.updateByExampleSelective(record, example);
+        productChangeLogDao.insertList(ids);
+        productCacheService.delDetail(ids);
+        return count;
     }
 
     @Override
@@ -267,7 +283,10 @@ public class PmsProductServiceImpl implements PmsProductService {
         record.setRecommandStatus(recommendStatus);
         PmsProductExample example = new PmsProductExample();
         example.createCriteria().andIdIn(ids);
-        return productMapper.updateByExampleSelective(record, example);
+        int count = productMapper.updateByExampleSelective(record, example);
+        productChangeLogDao.insertList(ids);
+        productCacheService.delDetail(ids);
+        return count;
     }
 
     @Override
@@ -276,7 +295,10 @@ public class PmsProductServiceImpl implements PmsProductService {
         record.setNewStatus(newStatus);
         PmsProductExample example = new PmsProductExample();
         example.createCriteria().andIdIn(ids);
-        return productMapper.updateByExampleSelective(record, example);
+        int count = productMapper.updateByExampleSelective(record, example);
+        productChangeLogDao.insertList(ids);
+        productCacheService.delDetail(ids);
+        return count;
     }
 
     @Override
@@ -285,7 +307,10 @@ public class PmsProductServiceImpl implements PmsProductService {
         record.setDeleteStatus(deleteStatus);
         PmsProductExample example = new PmsProductExample();
         example.createCriteria().andIdIn(ids);
-        return productMapper.updateByExampleSelective(record, example);
+        int count = productMapper.updateByExampleSelective(record, example);
+        productChangeLogDao.insertList(ids);
+        productCacheService.delDetail(ids);
+        return count;
     }
 
     @Override
@@ -2,18 +2,25 @@ package com.macro.mall.service.impl;
 
 import cn.hutool.core.collection.CollUtil;
 import com.macro.mall.common.service.RedisService;
+import com.macro.mall.common.util.TransactionUtil;
 import com.macro.mall.dao.UmsAdminRoleRelationDao;
+import com.macro.mall.dto.UmsMenuNode;
+import com.macro.mall.mapper.UmsAdminMapper;
 import com.macro.mall.mapper.UmsAdminRoleRelationMapper;
 import com.macro.mall.model.UmsAdmin;
+import com.macro.mall.model.UmsAdminExample;
 import com.macro.mall.model.UmsAdminRoleRelation;
 import com.macro.mall.model.UmsAdminRoleRelationExample;
 import com.macro.mall.model.UmsResource;
+import com.macro.mall.security.component.PermissionEpochTable;
+import com.macro.mall.security.component.UserDetailsCache;
 import com.macro.mall.service.UmsAdminCacheService;
 import com.macro.mall.service.UmsAdminService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -31,6 +38,12 @@ public class UmsAdminCacheServiceImpl implements UmsAdminCacheService {
     private UmsAdminRoleRelationMapper adminRoleRelationMapper;
     @Autowired
     private UmsAdminRoleRelationDao adminRoleRelationDao;
+    @Autowired
+    private UmsAdminMapper adminMapper;
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+    @Autowired(required = false)
+    private PermissionEpochTable permissionEpochTable;
     @Value("${redis.database}")
     private String REDIS_DATABASE;
     @Value("${redis.expire.common}")
@@ -39,20 +52,26 @@ public class UmsAdminCacheServiceImpl implements UmsAdminCacheService {
     private String REDIS_KEY_ADMIN;
     @Value("${redis.key.resourceList}")
     private String REDIS_KEY_RESOURCE_LIST;
+    @Value("${redis.key.menuTree}")
+    private String REDIS_KEY_MENU_TREE;
 
     @Override
     public void delAdmin(Long adminId) {
         UmsAdmin admin = adminService.getItem(adminId);
         if (admin != null) {
             String key = REDIS_DATABASE + ":" + REDIS_KEY_ADMIN + ":" + admin.getUsername();
-            redisService.del(key);
+            TransactionUtil.afterCommit(() -> redisService.del(key));
+            evictUserDetails(Collections.singletonList(admin.getUsername()));
+        } else {
+            evictAllUserDetails();
         }
     }
 
     @Override
     public void delResourceList(Long adminId) {
         String key = REDIS_DATABASE + ":" + REDIS_KEY_RESOURCE_LIST + ":" + adminId;
-        redisService.del(key);
+        TransactionUtil.afterCommit(() -> redisService.del(key));
+        evictUserDetailsByAdminIds(Collections.singletonList(adminId));
     }
 
     @Override
@@ -63,7 +82,8 @@ public class UmsAdminCacheServiceImpl implements UmsAdminCacheService {
         if (CollUtil.isNotEmpty(relationList)) {
             String keyPrefix = REDIS_DATABASE + ":" + REDIS_KEY_RESOURCE_LIST + ":";
             List<String> keys = relationList.stream().map(relation -> keyPrefix + relation.getAdminId()).collect(Collectors.toList());
-            redisService.del(keys);
+            TransactionUtil.afterCommit(() -> redisService.del(keys));
+            evictUserDetailsByAdminIds(relationList.stream().map(UmsAdminRoleRelation::getAdminId).collect(Collectors.toList()));
         }
     }
 
@@ -75,7 +95,8 @@ public class UmsAdminCacheServiceImpl implements UmsAdminCacheService {
         if (CollUtil.isNotEmpty(relationList)) {
             String keyPrefix = REDIS_DATABASE + ":" + REDIS_KEY_RESOURCE_LIST + ":";
             List<String> keys = relationList.stream().map(relation -> keyPrefix + relation.getAdminId()).collect(Collectors.toList());
-            redisService.del(keys);
+            TransactionUtil.afterCommit(() -> redisService.del(keys));
+            evictUserDetailsByAdminIds(relationList.stream().map(UmsAdminRoleRelation::getAdminId).collect(Collectors.toList()));
         }
     }
 
@@ -85,7 +106,8 @@ public class UmsAdminCacheServiceImpl implements UmsAdminCacheService {
         if (CollUtil.isNotEmpty(adminIdList)) {
             String keyPrefix = REDIS_DATABASE + ":" + REDIS_KEY_RESOURCE_LIST + ":";
             List<String> keys = adminIdList.stream().map(adminId -> keyPrefix + adminId).collect(Collectors.toList());
-            redisService.del(keys);
+            TransactionUtil.afterCommit(() -> redisService.del(keys));
+            evictUserDetailsByAdminIds(adminIdList);
         }
     }
 
@@ -112,4 +134,55 @@ public class UmsAdminCacheServiceImpl implements UmsAdminCacheService {
         String key = REDIS_DATABASE + ":" + REDIS_KEY_RESOURCE_LIST + ":" + adminId;
         redisService.set(key, resourceList, REDIS_EXPIRE);
     }
+
+    @Override
+    public void delMenuTree() {
+        String key = REDIS_DATABASE + ":" + REDIS_KEY_MENU_TREE;
+        redisService.del(key);
+    }
+
+    @Override
+    public List<UmsMenuNode> getMenuTree() {
+        String key = REDIS_DATABASE + ":" + REDIS_KEY_MENU_TREE;
+        return (List<UmsMenuNode>) redisService.get(key);
+    }
+
+    @Override
+    public void setMenuTree(List<UmsMenuNode> menuTree) {
+        String key = REDIS_DATABASE + ":" + REDIS_KEY_MENU_TREE;
+        redisService.set(key, menuTree, REDIS_EXPIRE);
+    }
+
+    /**
+     * 通知各节点清除后台用户的本地登录信息缓存，用户已删除而无法获取用户名时清除全部
+     */
+    private void evictUserDetailsByAdminIds(List<Long> adminIds) {
+        adminIds = adminIds.stream().distinct().collect(Collectors.toList());
+        UmsAdminExample example = new UmsAdminExample();
+        example.createCriteria().andIdIn(adminIds);
+        List<String> usernames = adminMapper.selectByExample(example).stream()
+                .map(UmsAdmin::getUsername).collect(Collectors.toList());
+        if (usernames.size() < adminIds.size()) {
+            evictAllUserDetails();
+        } else {
+            evictUserDetails(usernames);
+        }
+    }
+
+    /**
+     * 清除用户的本地登录信息缓存，并使已签发的自包含token需重新加载用户信息
+     */
+    private void evictUserDetails(List<String> usernames) {
+        userDetailsCache.evict(usernames);
+        if (permissionEpochTable != null) {
+            permissionEpochTable.increase(usernames);
+        }
+    }
+
+    private void evictAllUserDetails() {
+        userDetailsCache.evictAll();
+        if (permissionEpochTable != null) {
+            permissionEpochTable.increaseAll();
+        }
+    }
 }
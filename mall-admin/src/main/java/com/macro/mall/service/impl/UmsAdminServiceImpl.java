@@ -6,13 +6,15 @@ import com.github.pagehelper.PageHelper;
 import com.macro.mall.bo.AdminUserDetails;
 import com.macro.mall.common.exception.Asserts;
 import com.macro.mall.common.util.RequestUtil;
+import com.macro.mall.component.AdminLoginLogWriter;
 import com.macro.mall.dao.UmsAdminRoleRelationDao;
 import com.macro.mall.dto.UmsAdminParam;
 import com.macro.mall.dto.UpdateAdminPasswordParam;
-import com.macro.mall.mapper.UmsAdminLoginLogMapper;
 import com.macro.mall.mapper.UmsAdminMapper;
 import com.macro.mall.mapper.UmsAdminRoleRelationMapper;
 import com.macro.mall.model.*;
+import com.macro.mall.security.component.CredentialVerifier;
+import com.macro.mall.security.component.PermissionEpochTable;
 import com.macro.mall.security.util.JwtTokenUtil;
 import com.macro.mall.security.util.SpringUtil;
 import com.macro.mall.service.UmsAdminCacheService;
@@ -49,13 +51,17 @@ public class UmsAdminServiceImpl implements UmsAdminService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     @Autowired
+    private CredentialVerifier credentialVerifier;
+    @Autowired
     private UmsAdminMapper adminMapper;
     @Autowired
     private UmsAdminRoleRelationMapper adminRoleRelationMapper;
     @Autowired
     private UmsAdminRoleRelationDao adminRoleRelationDao;
     @Autowired
-    private UmsAdminLoginLogMapper loginLogMapper;
+    private AdminLoginLogWriter loginLogWriter;
+    @Autowired(required = false)
+    private PermissionEpochTable permissionEpochTable;
 
     @Override
     public UmsAdmin getAdminByUsername(String username) {
@@ -101,7 +107,7 @@ public class UmsAdminServiceImpl implements UmsAdminService {
         //密码需要客户端加密后传递
         try {
             UserDetails userDetails = loadUserByUsername(username);
-            if(!passwordEncoder.matches(password,userDetails.getPassword())){
+            if(!credentialVerifier.matches(username,password,userDetails.getPassword())){
                 Asserts.fail("密码不正确");
             }
             if(!userDetails.isEnabled()){
@@ -110,7 +116,6 @@ public class UmsAdminServiceImpl implements UmsAdminService {
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
             SecurityContextHolder.getContext().setAuthentication(authentication);
             token = jwtTokenUtil.generateToken(userDetails);
-//            updateLoginTimeByUsername(username);
             insertLoginLog(username);
         } catch (AuthenticationException e) {
             LOGGER.warn("登录异常:{}", e.getMessage());
@@ -119,30 +124,15 @@ public class UmsAdminServiceImpl implements UmsAdminService {
     }
 
     /**
-     * 添加登录记录
+     * 添加登录记录并修改登录时间，由后台线程批量写入
      * @param username 用户名
      */
     private void insertLoginLog(String username) {
         UmsAdmin admin = getAdminByUsername(username);
         if(admin==null) return;
-        UmsAdminLoginLog loginLog = new UmsAdminLoginLog();
-        loginLog.setAdminId(admin.getId());
-        loginLog.setCreateTime(new Date());
         ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
         HttpServletRequest request = attributes.getRequest();
-        loginLog.setIp(RequestUtil.getRequestIp(request));
-        loginLogMapper.insert(loginLog);
-    }
-
-    /**
-     * 根据用户名修改登录时间
-     */
-    private void updateLoginTimeByUsername(String username) {
-        UmsAdmin record = new UmsAdmin();
-        record.setLoginTime(new Date());
-        UmsAdminExample example = new UmsAdminExample();
-        example.createCriteria().andUsernameEqualTo(username);
-        adminMapper.updateByExampleSelective(record, example);
+        loginLogWriter.write(admin.getId(), RequestUtil.getRequestIp(request), StrUtil.sub(request.getHeader("User-Agent"), 0, 100));
     }
 
     @Override
@@ -266,8 +256,10 @@ public class UmsAdminServiceImpl implements UmsAdminService {
         //获取用户信息
         UmsAdmin admin = getAdminByUsername(username);
         if (admin != null) {
+            //先读取权限版本再加载资源，加载期间权限被修改时生成的token会因版本过期而失效
+            Long permissionEpoch = permissionEpochTable == null ? null : permissionEpochTable.getEpoch(username);
             List<UmsResource> resourceList = getResourceList(admin.getId());
-            return new AdminUserDetails(admin,resourceList);
+            return new AdminUserDetails(admin,resourceList,permissionEpoch);
         }
         throw new UsernameNotFoundException("用户名或密码错误");
     }
@@ -4,13 +4,16 @@ import com.github.pagehelper.PageHelper;
 import com.macro.mall.dto.UmsMenuNode;
 import com.macro.mall.mapper.UmsMenuMapper;
 import com.macro.mall.model.*;
+import com.macro.mall.service.UmsAdminCacheService;
 import com.macro.mall.service.UmsMenuService;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -21,12 +24,16 @@ import java.util.stream.Collectors;
 public class UmsMenuServiceImpl implements UmsMenuService {
     @Autowired
     private UmsMenuMapper menuMapper;
+    @Autowired
+    private UmsAdminCacheService adminCacheService;
 
     @Override
     public int create(UmsMenu umsMenu) {
         umsMenu.setCreateTime(new Date());
         updateLevel(umsMenu);
-        return menuMapper.insert(umsMenu);
+        int count = menuMapper.insert(umsMenu);
+        adminCacheService.delMenuTree();
+        return count;
     }
 
     /**
@@ -51,7 +58,9 @@ public class UmsMenuServiceImpl implements UmsMenuService {
     public int update(Long id, UmsMenu umsMenu) {
         umsMenu.setId(id);
         updateLevel(umsMenu);
-        return menuMapper.updateByPrimaryKeySelective(umsMenu);
+        int count = menuMapper.updateByPrimaryKeySelective(umsMenu);
+        adminCacheService.delMenuTree();
+        return count;
     }
 
     @Override
@@ -61,7 +70,9 @@ public class UmsMenuServiceImpl implements UmsMenuService {
 
     @Override
     public int delete(Long id) {
-        return menuMapper.deleteByPrimaryKey(id);
+        int count = menuMapper.deleteByPrimaryKey(id);
+        adminCacheService.delMenuTree();
+        return count;
     }
 
     @Override
@@ -75,11 +86,18 @@ public class UmsMenuServiceImpl implements UmsMenuService {
 
     @Override
     public List<UmsMenuNode> treeList() {
+        List<UmsMenuNode> result = adminCacheService.getMenuTree();
+        if (result != null) {
+            return result;
+        }
         List<UmsMenu> menuList = menuMapper.selectByExample(new UmsMenuExample());
-        List<UmsMenuNode> result = menuList.stream()
-                .filter(menu -> menu.getParentId().equals(0L))
-                .map(menu -> covertMenuNode(menu, menuList))
+        //按父菜单ID分组一次，避免每个节点都遍历全部菜单
+        Map<Long, List<UmsMenu>> childrenMap = menuList.stream()
+                .collect(Collectors.groupingBy(UmsMenu::getParentId));
+        result = childrenMap.getOrDefault(0L, Collections.emptyList()).stream()
+                .map(menu -> covertMenuNode(menu, childrenMap))
                 .collect(Collectors.toList());
+        adminCacheService.setMenuTree(result);
         return result;
     }
 
@@ -88,18 +106,19 @@ public class UmsMenuServiceImpl implements UmsMenuService {
         UmsMenu umsMenu = new UmsMenu();
         umsMenu.setId(id);
         umsMenu.setHidden(hidden);
-        return menuMapper.updateByPrimaryKeySelective(umsMenu);
+        int count = menuMapper.updateByPrimaryKeySelective(umsMenu);
+        adminCacheService.delMenuTree();
+        return count;
     }
 
     /**
      * 将UmsMenu转化为UmsMenuNode并设置children属性
      */
-    private UmsMenuNode covertMenuNode(UmsMenu menu, List<UmsMenu> menuList) {
+    private UmsMenuNode covertMenuNode(UmsMenu menu, Map<Long, List<UmsMenu>> childrenMap) {
         UmsMenuNode node = new UmsMenuNode();
         BeanUtils.copyProperties(menu, node);
-        List<UmsMenuNode> children = menuList.stream()
-                .filter(subMenu -> subMenu.getParentId().equals(menu.getId()))
-                .map(subMenu -> covertMenuNode(subMenu, menuList)).collect(Collectors.toList());
+        List<UmsMenuNode> children = childrenMap.getOrDefault(menu.getId(), Collections.emptyList()).stream()
+                .map(subMenu -> covertMenuNode(subMenu, childrenMap)).collect(Collectors.toList());
         node.setChildren(children);
         return node;
     }
@@ -0,0 +1,149 @@
+package com.macro.mall.common.api;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.util.StrUtil;
+import com.macro.mall.common.exception.Asserts;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 通用游标分页数据封装类，不查询总条数，翻页深度不影响查询耗时
+ * Created by macro on 2026/10/19.
+ */
+public class CommonCursorPage<T> {
+    /**
+     * 每页最大数量
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+    /**
+     * 获取下一页数据的游标，没有下一页时为空
+     */
+    private String nextCursor;
+    /**
+     * 是否有下一页
+     */
+    private Boolean hasNext;
+    /**
+     * 分页数据
+     */
+    private List<T> list;
+
+    /**
+     * 将查询结果转为游标分页信息
+     *
+     * @param list       查询结果，需比每页数量多查一条用于判断是否有下一页
+     * @param pageSize   每页数量
+     * @param nextCursor 根据当前页最后一条数据生成的游标
+     */
+    public static <T> CommonCursorPage<T> restPage(List<T> list, int pageSize, Function<T, String> nextCursor) {
+        checkPageSize(pageSize);
+        CommonCursorPage<T> result = new CommonCursorPage<T>();
+        boolean hasNext = list.size() > pageSize;
+        List<T> pageList = hasNext ? list.subList(0, pageSize) : list;
+        result.setHasNext(hasNext);
+        result.setList(pageList);
+        if (hasNext) {
+            result.setNextCursor(nextCursor.apply(pageList.get(pageList.size() - 1)));
+        }
+        return result;
+    }
+
+    /**
+     * 校验每页数量，需在1到MAX_PAGE_SIZE之间
+     */
+    public static void checkPageSize(Integer pageSize) {
+        if (pageSize == null || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            Asserts.fail("每页数量需在1到" + MAX_PAGE_SIZE + "之间");
+        }
+    }
+
+    /**
+     * 将排序字段值编码为不透明的游标
+     */
+    public static String encodeCursor(Object... values) {
+        return Base64.encodeUrlSafe(StrUtil.join(",", values), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 解析游标中的排序字段值，游标为空时返回null
+     *
+     * @param size 排序字段数量
+     */
+    public static String[] decodeCursor(String cursor, int size) {
+        if (StrUtil.isEmpty(cursor)) {
+            return null;
+        }
+        String[] values = null;
+        try {
+            values = Base64.decodeStr(cursor, StandardCharsets.UTF_8).split(",", -1);
+        } catch (Exception e) {
+            Asserts.fail("无效的分页游标");
+        }
+        if (values.length != size) {
+            Asserts.fail("无效的分页游标");
+        }
+        return values;
+    }
+
+    /**
+     * 将游标中的排序字段值转为Long
+     */
+    public static Long parseLong(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            Asserts.fail("无效的分页游标");
+            return null;
+        }
+    }
+
+    /**
+     * 将游标中的排序字段值转为Integer
+     */
+    public static Integer parseInt(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            Asserts.fail("无效的分页游标");
+            return null;
+        }
+    }
+
+    /**
+     * 将游标中的排序字段值转为Double
+     */
+    public static Double parseDouble(String value) {
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            Asserts.fail("无效的分页游标");
+            return null;
+        }
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Boolean getHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(Boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public List<T> getList() {
+        return list;
+    }
+
+    public void setList(List<T> list) {
+        this.list = list;
+    }
+}
@@ -0,0 +1,102 @@
+package com.macro.mall.common.component;
+
+import cn.hutool.core.thread.ThreadUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 异步批量写入器：数据先放入有界队列，由后台线程定时批量写入；
+ * 设置合并键时同一批次中键相同的数据只写入最后一条；队列已满时由调用线程直接写入，关闭时写入剩余数据
+ * Created by macro on 2026/10/19.
+ */
+public class AsyncBatchWriter<T> implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncBatchWriter.class);
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final Consumer<List<T>> writer;
+    private final Function<T, ?> mergeKey;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * @param name          名称，用于线程名及日志
+     * @param capacity      队列容量
+     * @param batchSize     每批最多写入的数量
+     * @param flushInterval 写入间隔，单位毫秒
+     * @param writer        批量写入操作
+     * @param mergeKey      合并键，为null时不合并
+     */
+    public AsyncBatchWriter(String name, int capacity, int batchSize, long flushInterval,
+                            Consumer<List<T>> writer, Function<T, ?> mergeKey) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.writer = writer;
+        this.mergeKey = mergeKey;
+        this.executor = Executors.newSingleThreadScheduledExecutor(ThreadUtil.newNamedThreadFactory(name + "-", true));
+        this.executor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 添加待写入的数据
+     */
+    public void add(T item) {
+        if (!queue.offer(item)) {
+            //队列已满时直接写入，避免丢失数据
+            write(Collections.singletonList(item));
+        }
+    }
+
+    /**
+     * 写入队列中的全部数据
+     */
+    public void flush() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(merge(batch));
+            batch.clear();
+        }
+    }
+
+    /**
+     * 停止后台线程并写入剩余数据
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private List<T> merge(List<T> batch) {
+        if (mergeKey == null) {
+            return batch;
+        }
+        Map<Object, T> merged = new LinkedHashMap<>();
+        for (T item : batch) {
+            merged.put(mergeKey.apply(item), item);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private void write(List<T> batch) {
+        try {
+            writer.accept(batch);
+        } catch (Exception e) {
+            LOGGER.error("{}批量写入失败，数量：{}", name, batch.size(), e);
+        }
+    }
+}
@@ -2,18 +2,16 @@ package com.macro.mall.common.log;
 
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
-import cn.hutool.json.JSONUtil;
 import com.macro.mall.common.domain.WebLog;
 import com.macro.mall.common.util.RequestUtil;
 import io.swagger.annotations.ApiOperation;
-import net.logstash.logback.marker.Markers;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.*;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -28,16 +26,21 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 统一日志处理切面
+ * 请求线程只记录日志信息，由WebLogWriter在后台序列化输出
  * Created by macro on 2018/4/26.
  */
 @Aspect
 @Component
 @Order(1)
 public class WebLogAspect {
-    private static final Logger LOGGER = LoggerFactory.getLogger(WebLogAspect.class);
+    @Autowired
+    private WebLogWriter webLogWriter;
+    @Value("${webLog.resultSampleRate:0.01}")
+    private Double RESULT_SAMPLE_RATE;
 
     @Pointcut("execution(public * com.macro.mall.controller.*.*(..))||execution(public * com.macro.mall.*.controller.*.*(..))")
     public void webLog() {
@@ -74,19 +77,15 @@ public class WebLogAspect {
         webLog.setIp(RequestUtil.getRequestIp(request));
         webLog.setMethod(request.getMethod());
         webLog.setParameter(getParameter(method, joinPoint.getArgs()));
-        webLog.setResult(result);
+        //只抽样记录返回结果，避免序列化大量数据
+        if (ThreadLocalRandom.current().nextDouble() < RESULT_SAMPLE_RATE) {
+            webLog.setResult(result);
+        }
         webLog.setSpendTime((int) (endTime - startTime));
         webLog.setStartTime(startTime);
         webLog.setUri(request.getRequestURI());
-        webLog.setUrl(request.getRequestURL().toString());
-        Map<String,Object> logMap = new HashMap<>();
-        logMap.put("url",webLog.getUrl());
-        logMap.put("method",webLog.getMethod());
-        logMap.put("parameter",webLog.getParameter());
-        logMap.put("spendTime",webLog.getSpendTime());
-        logMap.put("description",webLog.getDescription());
-//        LOGGER.info("{}", JSONUtil.parse(webLog));
-        LOGGER.info(Markers.appendEntries(logMap), JSONUtil.parse(webLog).toString());
+        webLog.setUrl(urlStr);
+        webLogWriter.offer(webLog);
         return result;
     }
 
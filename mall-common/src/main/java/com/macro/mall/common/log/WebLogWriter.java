@@ -0,0 +1,129 @@
+package com.macro.mall.common.log;
+
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.macro.mall.common.domain.WebLog;
+import net.logstash.logback.marker.Markers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 请求日志异步输出：请求线程只将日志放入无锁环形缓冲区，由后台线程序列化并输出
+ * 缓冲区已满时丢弃日志，参数及返回结果序列化后超出长度限制时截断
+ * Created by macro on 2026/10/19.
+ */
+@Component
+public class WebLogWriter {
+    //沿用切面的日志名称，保持原有的日志输出配置
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebLogAspect.class);
+    @Value("${webLog.bufferSize:4096}")
+    private Integer BUFFER_SIZE;
+    @Value("${webLog.flushInterval:100}")
+    private Long FLUSH_INTERVAL;
+    @Value("${webLog.maxParameterLength:2048}")
+    private Integer MAX_PARAMETER_LENGTH;
+    @Value("${webLog.maxResultLength:2048}")
+    private Integer MAX_RESULT_LENGTH;
+    private AtomicReferenceArray<WebLog> buffer;
+    private int mask;
+    //下一个写入位置，由请求线程竞争递增
+    private final AtomicLong tail = new AtomicLong();
+    //下一个读取位置，只由后台线程修改
+    private volatile long head;
+    private final AtomicLong dropped = new AtomicLong();
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        //缓冲区大小取不小于配置值的2的幂
+        int capacity = Integer.highestOneBit(Math.max(BUFFER_SIZE - 1, 1)) << 1;
+        buffer = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+        executor = Executors.newSingleThreadScheduledExecutor(ThreadUtil.newNamedThreadFactory("web-log-", true));
+        executor.scheduleWithFixedDelay(this::drain, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    /**
+     * 添加请求日志，缓冲区已满时返回false
+     */
+    public boolean offer(WebLog webLog) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= buffer.length()) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        buffer.lazySet((int) (sequence & mask), webLog);
+        return true;
+    }
+
+    /**
+     * 输出缓冲区中的日志，遇到已占用但还未写入的位置时等待下次输出
+     */
+    private synchronized void drain() {
+        long current = head;
+        WebLog webLog;
+        while ((webLog = buffer.get((int) (current & mask))) != null) {
+            buffer.lazySet((int) (current & mask), null);
+            head = ++current;
+            write(webLog);
+        }
+        long droppedCount = dropped.getAndSet(0);
+        if (droppedCount > 0) {
+            LOGGER.warn("请求日志缓冲区已满，丢弃日志数量：{}", droppedCount);
+        }
+    }
+
+    private void write(WebLog webLog) {
+        try {
+            webLog.setParameter(limitLength(webLog.getParameter(), MAX_PARAMETER_LENGTH));
+            webLog.setResult(limitLength(webLog.getResult(), MAX_RESULT_LENGTH));
+            Map<String, Object> logMap = new HashMap<>();
+            logMap.put("url", webLog.getUrl());
+            logMap.put("method", webLog.getMethod());
+            logMap.put("parameter", webLog.getParameter());
+            logMap.put("spendTime", webLog.getSpendTime());
+            logMap.put("description", webLog.getDescription());
+            LOGGER.info(Markers.appendEntries(logMap), JSONUtil.parse(webLog).toString());
+        } catch (Exception e) {
+            LOGGER.warn("请求日志输出失败，url：{}", webLog.getUrl(), e);
+        }
+    }
+
+    /**
+     * 序列化后超出长度时截断为字符串，否则保留原对象
+     */
+    private Object limitLength(Object value, int maxLength) {
+        if (value == null) {
+            return null;
+        }
+        String json = JSONUtil.toJsonStr(value);
+        return json.length() > maxLength ? StrUtil.subPre(json, maxLength) + "..." : value;
+    }
+}
@@ -179,4 +179,9 @@ public interface RedisService {
      * 从List结构中移除属性
      */
     Long lRemove(String key, long count, Object value);
-}
\ No newline at end of file
+
+    /**
+     * 向指定频道发布消息
+     */
+    void convertAndSend(String channel, Object message);
+}
@@ -0,0 +1,28 @@
+package com.macro.mall.common.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务相关工具类
+ * Created by macro on 2026/10/19.
+ */
+public class TransactionUtil {
+
+    /**
+     * 在当前事务提交后执行，如清除缓存及发送通知，避免其他请求在提交前读取到旧数据并重新缓存；
+     * 没有事务时立即执行
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
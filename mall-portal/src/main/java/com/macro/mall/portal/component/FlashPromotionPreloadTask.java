@@ -0,0 +1,42 @@
+package com.macro.mall.portal.component;
+
+import com.macro.mall.portal.service.OmsFlashPromotionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 预加载当前场次秒杀商品及库存的定时器
+ * Created by macro on 2026/10/19.
+ */
+@Component
+public class FlashPromotionPreloadTask {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlashPromotionPreloadTask.class);
+    @Autowired
+    private OmsFlashPromotionService flashPromotionService;
+
+    /**
+     * 启动完成后立即加载，避免启动后的第一分钟内秒杀下单因库存未加载而失败
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadOnStartup() {
+        preload();
+    }
+
+    /**
+     * 每分钟刷新一次，保证场次切换后及时加载新场次的秒杀库存
+     */
+    @Scheduled(cron = "0 0/1 * ? * ?")
+    private void preload() {
+        try {
+            int count = flashPromotionService.preload();
+            LOGGER.debug("预加载秒杀商品数量：{}", count);
+        } catch (Exception e) {
+            LOGGER.error("预加载秒杀商品失败", e);
+        }
+    }
+}
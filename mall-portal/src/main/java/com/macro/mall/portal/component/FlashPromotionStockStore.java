@@ -0,0 +1,46 @@
+package com.macro.mall.portal.component;
+
+/**
+ * 秒杀库存及会员已购数量的原子计数存储
+ * Created by macro on 2026/10/19.
+ */
+public interface FlashPromotionStockStore {
+    /**
+     * 抢购成功
+     */
+    int ADMITTED = 1;
+    /**
+     * 秒杀库存不足
+     */
+    int SOLD_OUT = 0;
+    /**
+     * 超过每人限购数量
+     */
+    int OVER_LIMIT = -1;
+    /**
+     * 秒杀库存未加载
+     */
+    int NOT_LOADED = -2;
+
+    /**
+     * 预加载秒杀库存，已加载的库存不会被覆盖
+     *
+     * @param relationId    秒杀商品关系ID
+     * @param stock         秒杀数量
+     * @param expireSeconds 计数有效期（秒）
+     */
+    void load(Long relationId, Integer stock, long expireSeconds);
+
+    /**
+     * 原子扣减秒杀库存并累加会员已购数量
+     *
+     * @param limit 每人限购数量，小于等于0时不限购
+     * @return {@link #ADMITTED}、{@link #SOLD_OUT}、{@link #OVER_LIMIT}或{@link #NOT_LOADED}
+     */
+    int acquire(Long relationId, Long memberId, int quantity, int limit);
+
+    /**
+     * 归还秒杀库存及会员已购数量
+     */
+    void release(Long relationId, Long memberId, int quantity);
+}
@@ -0,0 +1,78 @@
+package com.macro.mall.portal.component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于本地内存的秒杀库存计数存储，仅适用于单节点部署或开发环境
+ * Created by macro on 2026/10/19.
+ */
+public class LocalFlashPromotionStockStore implements FlashPromotionStockStore {
+    private final Map<Long, Counter> counterMap = new ConcurrentHashMap<>();
+
+    @Override
+    public void load(Long relationId, Integer stock, long expireSeconds) {
+        long expireTime = System.currentTimeMillis() + expireSeconds * 1000;
+        counterMap.compute(relationId, (key, counter) -> {
+            if (counter != null && !counter.isExpired()) {
+                return counter;
+            }
+            return new Counter(stock, expireTime);
+        });
+    }
+
+    @Override
+    public int acquire(Long relationId, Long memberId, int quantity, int limit) {
+        Counter counter = counterMap.get(relationId);
+        if (counter == null || counter.isExpired()) {
+            return NOT_LOADED;
+        }
+        //先累加会员已购数量，超出限购时回退
+        AtomicInteger bought = counter.memberBought.computeIfAbsent(memberId, key -> new AtomicInteger());
+        int total = bought.addAndGet(quantity);
+        if (limit > 0 && total > limit) {
+            bought.addAndGet(-quantity);
+            return OVER_LIMIT;
+        }
+        //再通过CAS扣减库存，库存不足时回退已购数量
+        while (true) {
+            int current = counter.stock.get();
+            if (current < quantity) {
+                bought.addAndGet(-quantity);
+                return SOLD_OUT;
+            }
+            if (counter.stock.compareAndSet(current, current - quantity)) {
+                return ADMITTED;
+            }
+        }
+    }
+
+    @Override
+    public void release(Long relationId, Long memberId, int quantity) {
+        Counter counter = counterMap.get(relationId);
+        if (counter == null) {
+            return;
+        }
+        counter.stock.addAndGet(quantity);
+        AtomicInteger bought = counter.memberBought.get(memberId);
+        if (bought != null) {
+            bought.addAndGet(-quantity);
+        }
+    }
+
+    private static class Counter {
+        private final AtomicInteger stock;
+        private final Map<Long, AtomicInteger> memberBought = new ConcurrentHashMap<>();
+        private final long expireTime;
+
+        Counter(int stock, long expireTime) {
+            this.stock = new AtomicInteger(stock);
+            this.expireTime = expireTime;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expireTime;
+        }
+    }
+}
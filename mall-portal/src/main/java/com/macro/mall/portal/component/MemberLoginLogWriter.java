@@ -0,0 +1,51 @@
+package com.macro.mall.portal.component;
+
+import com.macro.mall.common.component.AsyncBatchWriter;
+import com.macro.mall.model.UmsMemberLoginLog;
+import com.macro.mall.portal.dao.UmsMemberLoginLogDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Date;
+
+/**
+ * 会员登录记录异步批量写入
+ * Created by macro on 2026/10/19.
+ */
+@Component
+public class MemberLoginLogWriter {
+    @Autowired
+    private UmsMemberLoginLogDao loginLogDao;
+    @Value("${loginLog.capacity:10000}")
+    private Integer CAPACITY;
+    @Value("${loginLog.batchSize:500}")
+    private Integer BATCH_SIZE;
+    @Value("${loginLog.flushInterval:300}")
+    private Long FLUSH_INTERVAL;
+    private AsyncBatchWriter<UmsMemberLoginLog> loginLogWriter;
+
+    @PostConstruct
+    public void init() {
+        loginLogWriter = new AsyncBatchWriter<>("member-login-log", CAPACITY, BATCH_SIZE, FLUSH_INTERVAL,
+                loginLogDao::insertList, null);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        loginLogWriter.close();
+    }
+
+    /**
+     * 记录会员登录
+     */
+    public void write(Long memberId, String ip) {
+        UmsMemberLoginLog loginLog = new UmsMemberLoginLog();
+        loginLog.setMemberId(memberId);
+        loginLog.setCreateTime(new Date());
+        loginLog.setIp(ip);
+        loginLogWriter.add(loginLog);
+    }
+}
@@ -0,0 +1,292 @@
+package com.macro.mall.portal.component;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.github.pagehelper.Page;
+import com.macro.mall.mapper.PmsProductMapper;
+import com.macro.mall.model.PmsProduct;
+import com.macro.mall.model.PmsProductExample;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * 已上架商品的本地搜索索引，未部署Elasticsearch时代替数据库模糊查询
+ * 按商品名称的单字及相邻双字建立倒排表，支持中文名称检索；后台修改商品时通过Redis频道增量更新
+ * Created by macro on 2026/10/19.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductSearchIndex.class);
+    @Autowired
+    private PmsProductMapper productMapper;
+    @Autowired
+    private RedisSerializer<Object> redisSerializer;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.channel.productDetail}")
+    private String REDIS_CHANNEL_PRODUCT_DETAIL;
+    @Value("${productIndex.enable:true}")
+    private Boolean ENABLE;
+    /**
+     * 当前索引，构建完成前为空，此时使用数据库查询
+     */
+    private volatile Index index;
+
+    @PostConstruct
+    public void init() {
+        if (!ENABLE) {
+            return;
+        }
+        //商品变更消息内容为以逗号分隔的商品ID，为空时全量重建索引
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            String ids = (String) redisSerializer.deserialize(message.getBody());
+            try {
+                if (StrUtil.isEmpty(ids)) {
+                    rebuild();
+                } else {
+                    update(StrUtil.split(ids, ',').stream().map(id -> Long.valueOf(id.trim())).collect(Collectors.toList()));
+                }
+            } catch (Exception e) {
+                LOGGER.error("更新商品搜索索引失败：{}", ids, e);
+            }
+        }, new ChannelTopic(REDIS_DATABASE + ":" + REDIS_CHANNEL_PRODUCT_DETAIL));
+    }
+
+    /**
+     * 索引是否可用
+     */
+    public boolean isReady() {
+        return ENABLE && index != null;
+    }
+
+    /**
+     * 全量重建索引，构建完成后整体替换
+     */
+    public synchronized void rebuild() {
+        if (!ENABLE) {
+            return;
+        }
+        PmsProductExample example = new PmsProductExample();
+        example.createCriteria().andDeleteStatusEqualTo(0).andPublishStatusEqualTo(1);
+        index = Index.build(productMapper.selectByExample(example));
+    }
+
+    /**
+     * 根据商品ID增量更新索引，只修改变更商品的倒排表，已下架或删除的商品从索引中移除
+     */
+    public synchronized void update(List<Long> productIds) {
+        Index current = index;
+        if (current == null || CollUtil.isEmpty(productIds)) {
+            return;
+        }
+        PmsProductExample example = new PmsProductExample();
+        example.createCriteria().andIdIn(productIds).andDeleteStatusEqualTo(0).andPublishStatusEqualTo(1);
+        Map<Long, PmsProduct> productMap = productMapper.selectByExample(example).stream()
+                .collect(Collectors.toMap(PmsProduct::getId, product -> product));
+        for (Long productId : productIds) {
+            PmsProduct product = productMap.get(productId);
+            if (product == null) {
+                current.remove(productId);
+            } else {
+                current.put(product);
+            }
+        }
+    }
+
+    /**
+     * 搜索商品，匹配规则与name like '%keyword%'一致
+     *
+     * @param sort 0->按ID；1->按新品；2->按销量；3->价格从低到高；4->价格从高到低
+     */
+    public Page<PmsProduct> search(String keyword, Long brandId, Long productCategoryId, Integer pageNum, Integer pageSize, Integer sort) {
+        Index current = index;
+        List<PmsProduct> matchList = new ArrayList<>();
+        String word = StrUtil.isEmpty(keyword) ? null : keyword.toLowerCase();
+        Collection<PmsProduct> candidates = word == null ? current.docs.values() : current.candidates(word);
+        for (PmsProduct product : candidates) {
+            if (brandId != null && !brandId.equals(product.getBrandId())) {
+                continue;
+            }
+            if (productCategoryId != null && !productCategoryId.equals(product.getProductCategoryId())) {
+                continue;
+            }
+            //双字倒排表只能保证候选包含所有片段，需要再校验是否连续出现
+            if (word != null && !Index.getName(product).contains(word)) {
+                continue;
+            }
+            matchList.add(product);
+        }
+        Comparator<PmsProduct> comparator = getComparator(sort);
+        if (comparator != null) {
+            matchList.sort(comparator);
+        }
+        Page<PmsProduct> page = new Page<>(pageNum, pageSize);
+        page.setTotal(matchList.size());
+        int fromIndex = (int) Math.min(page.getStartRow(), matchList.size());
+        int toIndex = Math.min(fromIndex + pageSize, matchList.size());
+        page.addAll(matchList.subList(fromIndex, toIndex));
+        return page;
+    }
+
+    private Comparator<PmsProduct> getComparator(Integer sort) {
+        Comparator<PmsProduct> byId = Comparator.comparing(PmsProduct::getId);
+        Comparator<PmsProduct> bySale = Comparator.comparing(product -> product.getSale() == null ? 0 : product.getSale());
+        Comparator<PmsProduct> byPrice = Comparator.comparing(product -> product.getPrice() == null ? BigDecimal.ZERO : product.getPrice());
+        if (sort == null) {
+            return null;
+        } else if (sort == 1) {
+            return byId.reversed();
+        } else if (sort == 2) {
+            return bySale.reversed().thenComparing(byId);
+        } else if (sort == 3) {
+            return byPrice.thenComparing(byId);
+        } else if (sort == 4) {
+            return byPrice.reversed().thenComparing(byId);
+        }
+        return null;
+    }
+
+    /**
+     * 商品索引，查询无需加锁；增量更新时逐个替换变更商品所在的倒排表，
+     * 查询期间可能读取到更新中的倒排表，由名称校验保证结果正确
+     */
+    private static class Index {
+        /**
+         * 按ID升序排列的商品
+         */
+        private final ConcurrentNavigableMap<Long, PmsProduct> docs = new ConcurrentSkipListMap<>();
+        /**
+         * 单字及双字到商品ID的倒排表，ID升序，修改时复制整个数组
+         */
+        private final Map<String, long[]> postings = new ConcurrentHashMap<>();
+
+        static Index build(List<PmsProduct> productList) {
+            Index index = new Index();
+            Map<String, List<Long>> postingMap = new HashMap<>();
+            productList.stream().sorted(Comparator.comparing(PmsProduct::getId)).forEach(product -> {
+                index.docs.put(product.getId(), product);
+                for (String gram : grams(getName(product), true)) {
+                    postingMap.computeIfAbsent(gram, key -> new ArrayList<>()).add(product.getId());
+                }
+            });
+            postingMap.forEach((gram, ids) -> index.postings.put(gram, ids.stream().mapToLong(Long::longValue).toArray()));
+            return index;
+        }
+
+        /**
+         * 添加或替换商品
+         */
+        void put(PmsProduct product) {
+            remove(product.getId());
+            docs.put(product.getId(), product);
+            for (String gram : grams(getName(product), true)) {
+                postings.merge(gram, new long[]{product.getId()}, (ids, added) -> insert(ids, added[0]));
+            }
+        }
+
+        /**
+         * 移除商品
+         */
+        void remove(Long productId) {
+            PmsProduct old = docs.remove(productId);
+            if (old == null) {
+                return;
+            }
+            for (String gram : grams(getName(old), true)) {
+                postings.computeIfPresent(gram, (key, ids) -> {
+                    long[] result = delete(ids, productId);
+                    return result.length == 0 ? null : result;
+                });
+            }
+        }
+
+        /**
+         * 获取包含关键词所有片段的候选商品
+         */
+        List<PmsProduct> candidates(String word) {
+            List<long[]> postingList = new ArrayList<>();
+            for (String gram : grams(word, false)) {
+                long[] posting = postings.get(gram);
+                if (posting == null) {
+                    return Collections.emptyList();
+                }
+                postingList.add(posting);
+            }
+            //从最短的倒排表开始求交集
+            postingList.sort(Comparator.comparingInt(posting -> posting.length));
+            long[] result = postingList.get(0);
+            for (int i = 1; i < postingList.size() && result.length > 0; i++) {
+                long[] other = postingList.get(i);
+                result = Arrays.stream(result).filter(id -> Arrays.binarySearch(other, id) >= 0).toArray();
+            }
+            List<PmsProduct> productList = new ArrayList<>(result.length);
+            for (long id : result) {
+                PmsProduct product = docs.get(id);
+                if (product != null) {
+                    productList.add(product);
+                }
+            }
+            return productList;
+        }
+
+        static String getName(PmsProduct product) {
+            return product.getName() == null ? "" : product.getName().toLowerCase();
+        }
+
+        private static long[] insert(long[] ids, long id) {
+            int position = Arrays.binarySearch(ids, id);
+            if (position >= 0) {
+                return ids;
+            }
+            position = -position - 1;
+            long[] result = new long[ids.length + 1];
+            System.arraycopy(ids, 0, result, 0, position);
+            result[position] = id;
+            System.arraycopy(ids, position, result, position + 1, ids.length - position);
+            return result;
+        }
+
+        private static long[] delete(long[] ids, long id) {
+            int position = Arrays.binarySearch(ids, id);
+            if (position < 0) {
+                return ids;
+            }
+            long[] result = new long[ids.length - 1];
+            System.arraycopy(ids, 0, result, 0, position);
+            System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+            return result;
+        }
+
+        /**
+         * 建索引时取全部单字和双字，查询时单字关键词取单字，否则只取双字
+         */
+        private static Set<String> grams(String text, boolean indexing) {
+            Set<String> grams = new HashSet<>();
+            if (indexing || text.length() == 1) {
+                for (int i = 0; i < text.length(); i++) {
+                    grams.add(text.substring(i, i + 1));
+                }
+            }
+            for (int i = 0; i + 2 <= text.length(); i++) {
+                grams.add(text.substring(i, i + 2));
+            }
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.macro.mall.portal.component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时全量重建商品搜索索引，用于同步销量等未通过消息通知的变更
+ * Created by macro on 2026/10/19.
+ */
+@Component
+public class ProductSearchIndexTask {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductSearchIndexTask.class);
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    /**
+     * 启动后立即构建，之后按配置的间隔重建
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${productIndex.rebuildDelay:600000}")
+    private void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            productSearchIndex.rebuild();
+            LOGGER.debug("重建商品搜索索引耗时：{}ms", System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            LOGGER.error("重建商品搜索索引失败", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.macro.mall.portal.component;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Redis的秒杀库存计数存储，通过Lua脚本保证扣减库存和限购校验的原子性
+ * Created by macro on 2026/10/19.
+ */
+public class RedisFlashPromotionStockStore implements FlashPromotionStockStore {
+    /**
+     * KEYS[1]:秒杀库存；KEYS[2]:会员已购数量Hash
+     * ARGV[1]:会员ID；ARGV[2]:购买数量；ARGV[3]:每人限购数量
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local stock = redis.call('get', KEYS[1])\n" +
+            "if not stock then return -2 end\n" +
+            "local quantity = tonumber(ARGV[2])\n" +
+            "if tonumber(stock) < quantity then return 0 end\n" +
+            "local limit = tonumber(ARGV[3])\n" +
+            "local bought = tonumber(redis.call('hget', KEYS[2], ARGV[1]) or '0')\n" +
+            "if limit > 0 and bought + quantity > limit then return -1 end\n" +
+            "redis.call('decrby', KEYS[1], quantity)\n" +
+            "redis.call('hincrby', KEYS[2], ARGV[1], quantity)\n" +
+            "redis.call('expire', KEYS[2], redis.call('ttl', KEYS[1]))\n" +
+            "return 1", Long.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end\n" +
+            "redis.call('incrby', KEYS[1], ARGV[2])\n" +
+            "if tonumber(redis.call('hincrby', KEYS[2], ARGV[1], -tonumber(ARGV[2]))) <= 0 then\n" +
+            "  redis.call('hdel', KEYS[2], ARGV[1])\n" +
+            "end\n" +
+            "return 1", Long.class);
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.key.flashStock}")
+    private String REDIS_KEY_FLASH_STOCK;
+    @Value("${redis.key.flashMember}")
+    private String REDIS_KEY_FLASH_MEMBER;
+
+    @Override
+    public void load(Long relationId, Integer stock, long expireSeconds) {
+        stringRedisTemplate.opsForValue().setIfAbsent(getStockKey(relationId), String.valueOf(stock), expireSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public int acquire(Long relationId, Long memberId, int quantity, int limit) {
+        Long result = stringRedisTemplate.execute(ACQUIRE_SCRIPT, getKeys(relationId),
+                String.valueOf(memberId), String.valueOf(quantity), String.valueOf(limit));
+        return result == null ? NOT_LOADED : result.intValue();
+    }
+
+    @Override
+    public void release(Long relationId, Long memberId, int quantity) {
+        stringRedisTemplate.execute(RELEASE_SCRIPT, getKeys(relationId), String.valueOf(memberId), String.valueOf(quantity));
+    }
+
+    private List<String> getKeys(Long relationId) {
+        return Arrays.asList(getStockKey(relationId), REDIS_DATABASE + ":" + REDIS_KEY_FLASH_MEMBER + ":" + relationId);
+    }
+
+    private String getStockKey(Long relationId) {
+        return REDIS_DATABASE + ":" + REDIS_KEY_FLASH_STOCK + ":" + relationId;
+    }
+}
@@ -0,0 +1,34 @@
+package com.macro.mall.portal.config;
+
+import com.macro.mall.portal.component.FlashPromotionStockStore;
+import com.macro.mall.portal.component.LocalFlashPromotionStockStore;
+import com.macro.mall.portal.component.RedisFlashPromotionStockStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 秒杀下单相关配置
+ * Created by macro on 2026/10/19.
+ */
+@Configuration
+public class FlashPromotionConfig {
+
+    /**
+     * 默认使用Redis存储秒杀库存计数，支持多节点部署
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "flash", name = "store", havingValue = "redis", matchIfMissing = true)
+    public FlashPromotionStockStore redisFlashPromotionStockStore() {
+        return new RedisFlashPromotionStockStore();
+    }
+
+    /**
+     * 单节点部署时可使用本地内存存储秒杀库存计数
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "flash", name = "store", havingValue = "local")
+    public FlashPromotionStockStore localFlashPromotionStockStore() {
+        return new LocalFlashPromotionStockStore();
+    }
+}
@@ -1,10 +1,12 @@
 package com.macro.mall.portal.controller;
 
+import com.macro.mall.common.api.CommonCursorPage;
 import com.macro.mall.common.api.CommonResult;
 import com.macro.mall.model.CmsSubject;
 import com.macro.mall.model.PmsProduct;
 import com.macro.mall.model.PmsProductCategory;
 import com.macro.mall.portal.domain.HomeContentResult;
+import com.macro.mall.portal.domain.HomeCursorProduct;
 import com.macro.mall.portal.service.HomeService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -79,4 +81,31 @@ public class HomeController {
         List<PmsProduct> productList = homeService.newProductList(pageNum,pageSize);
         return CommonResult.success(productList);
     }
+
+    @ApiOperation("按游标获取推荐商品")
+    @RequestMapping(value = "/recommendProductCursor", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<CommonCursorPage<PmsProduct>> recommendProductCursor(@RequestParam(required = false) String cursor,
+                                                                             @RequestParam(value = "pageSize", defaultValue = "4") Integer pageSize) {
+        CommonCursorPage<PmsProduct> productPage = homeService.recommendProductCursor(cursor, pageSize);
+        return CommonResult.success(productPage);
+    }
+
+    @ApiOperation("按游标获取人气推荐商品")
+    @RequestMapping(value = "/hotProductCursor", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<CommonCursorPage<HomeCursorProduct>> hotProductCursor(@RequestParam(required = false) String cursor,
+                                                                              @RequestParam(value = "pageSize", defaultValue = "6") Integer pageSize) {
+        CommonCursorPage<HomeCursorProduct> productPage = homeService.hotProductCursor(cursor, pageSize);
+        return CommonResult.success(productPage);
+    }
+
+    @ApiOperation("按游标获取新品推荐商品")
+    @RequestMapping(value = "/newProductCursor", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<CommonCursorPage<HomeCursorProduct>> newProductCursor(@RequestParam(required = false) String cursor,
+                                                                              @RequestParam(value = "pageSize", defaultValue = "6") Integer pageSize) {
+        CommonCursorPage<HomeCursorProduct> productPage = homeService.newProductCursor(cursor, pageSize);
+        return CommonResult.success(productPage);
+    }
 }
@@ -3,8 +3,11 @@ package com.macro.mall.portal.controller;
 import com.macro.mall.common.api.CommonPage;
 import com.macro.mall.common.api.CommonResult;
 import com.macro.mall.portal.domain.ConfirmOrderResult;
+import com.macro.mall.portal.domain.FlashOrderParam;
+import com.macro.mall.portal.domain.FlashOrderResult;
 import com.macro.mall.portal.domain.OmsOrderDetail;
 import com.macro.mall.portal.domain.OrderParam;
+import com.macro.mall.portal.service.OmsFlashPromotionService;
 import com.macro.mall.portal.service.OmsPortalOrderService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiImplicitParam;
@@ -28,6 +31,8 @@ import java.util.Map;
 public class OmsPortalOrderController {
     @Autowired
     private OmsPortalOrderService portalOrderService;
+    @Autowired
+    private OmsFlashPromotionService flashPromotionService;
 
     @ApiOperation("根据购物车信息生成确认单")
     @RequestMapping(value = "/generateConfirmOrder", method = RequestMethod.POST)
@@ -45,6 +50,22 @@ public class OmsPortalOrderController {
         return CommonResult.success(result, "下单成功");
     }
 
+    @ApiOperation("秒杀商品抢购下单")
+    @RequestMapping(value = "/generateFlashOrder", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult<String> generateFlashOrder(@RequestBody FlashOrderParam orderParam) {
+        String requestId = flashPromotionService.generateFlashOrder(orderParam);
+        return CommonResult.success(requestId, "抢购成功，正在生成订单");
+    }
+
+    @ApiOperation("根据请求编号获取秒杀下单结果")
+    @RequestMapping(value = "/flashOrderResult/{requestId}", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<FlashOrderResult> flashOrderResult(@PathVariable String requestId) {
+        FlashOrderResult result = flashPromotionService.getFlashOrderResult(requestId);
+        return CommonResult.success(result);
+    }
+
     @ApiOperation("用户支付成功的回调")
     @RequestMapping(value = "/paySuccess", method = RequestMethod.POST)
     @ResponseBody
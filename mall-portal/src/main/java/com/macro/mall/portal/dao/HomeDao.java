@@ -4,6 +4,7 @@ import com.macro.mall.model.CmsSubject;
 import com.macro.mall.model.PmsBrand;
 import com.macro.mall.model.PmsProduct;
 import com.macro.mall.portal.domain.FlashPromotionProduct;
+import com.macro.mall.portal.domain.HomeCursorProduct;
 import org.apache.ibatis.annotations.Param;
 
 import java.util.List;
@@ -33,6 +34,16 @@ public interface HomeDao {
      */
     List<PmsProduct> getHotProductList(@Param("offset") Integer offset,@Param("limit") Integer limit);
 
+    /**
+     * 按(排序,ID)游标获取新品推荐，排序为空的视为0，排序及ID为空时从第一条开始
+     */
+    List<HomeCursorProduct> getNewProductListByCursor(@Param("sort") Integer sort, @Param("id") Long id, @Param("limit") Integer limit);
+
+    /**
+     * 按(排序,ID)游标获取人气推荐，排序为空的视为0，排序及ID为空时从第一条开始
+     */
+    List<HomeCursorProduct> getHotProductListByCursor(@Param("sort") Integer sort, @Param("id") Long id, @Param("limit") Integer limit);
+
     /**
      * 获取推荐专题
      */
@@ -0,0 +1,22 @@
+package com.macro.mall.portal.dao;
+
+import com.macro.mall.model.SmsFlashPromotionLog;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 前台秒杀活动自定义Dao
+ * Created by macro on 2026/10/19.
+ */
+public interface SmsFlashPromotionDao {
+    /**
+     * 批量插入秒杀记录
+     */
+    int insertLogList(@Param("list") List<SmsFlashPromotionLog> flashPromotionLogList);
+
+    /**
+     * 扣减秒杀商品的剩余秒杀数量
+     */
+    int reduceFlashPromotionCount(@Param("relationId") Long relationId, @Param("quantity") Integer quantity);
+}
@@ -0,0 +1,17 @@
+package com.macro.mall.portal.dao;
+
+import com.macro.mall.model.UmsMemberLoginLog;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 会员登录记录自定义Dao
+ * Created by macro on 2026/10/19.
+ */
+public interface UmsMemberLoginLogDao {
+    /**
+     * 批量创建登录记录
+     */
+    int insertList(@Param("list") List<UmsMemberLoginLog> loginLogList);
+}
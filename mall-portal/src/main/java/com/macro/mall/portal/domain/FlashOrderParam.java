@@ -0,0 +1,24 @@
+package com.macro.mall.portal.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 秒杀下单时传入的参数
+ * Created by macro on 2026/10/19.
+ */
+@Data
+@EqualsAndHashCode
+public class FlashOrderParam {
+    @ApiModelProperty("秒杀商品关系ID")
+    private Long flashPromotionRelationId;
+    @ApiModelProperty("商品SKU ID")
+    private Long productSkuId;
+    @ApiModelProperty("购买数量")
+    private Integer quantity;
+    @ApiModelProperty("收货地址ID")
+    private Long memberReceiveAddressId;
+    @ApiModelProperty("支付方式")
+    private Integer payType;
+}
@@ -0,0 +1,31 @@
+package com.macro.mall.portal.domain;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * 已抢购成功、等待异步生成订单的秒杀请求
+ * Created by macro on 2026/10/19.
+ */
+@Data
+@EqualsAndHashCode
+public class FlashOrderRequest {
+    /**
+     * 请求编号，用于查询下单结果
+     */
+    private String requestId;
+    private Long memberId;
+    private String memberUsername;
+    private String memberPhone;
+    private Long flashPromotionRelationId;
+    private Long productId;
+    private Long productSkuId;
+    private Integer quantity;
+    private BigDecimal flashPromotionPrice;
+    private Long memberReceiveAddressId;
+    private Integer payType;
+    private Date createTime;
+}
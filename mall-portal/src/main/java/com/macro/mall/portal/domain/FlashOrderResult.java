@@ -0,0 +1,49 @@
+package com.macro.mall.portal.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serializable;
+
+/**
+ * 秒杀下单结果
+ * Created by macro on 2026/10/19.
+ */
+@Data
+@EqualsAndHashCode
+public class FlashOrderResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+    @ApiModelProperty("请求编号")
+    private String requestId;
+    @ApiModelProperty("下单状态：0->排队中；1->下单成功；2->下单失败")
+    private Integer status;
+    @ApiModelProperty("订单ID")
+    private Long orderId;
+    @ApiModelProperty("订单编号")
+    private String orderSn;
+    @ApiModelProperty("失败原因")
+    private String message;
+
+    public static FlashOrderResult queued(String requestId) {
+        FlashOrderResult result = new FlashOrderResult();
+        result.setRequestId(requestId);
+        result.setStatus(0);
+        return result;
+    }
+
+    public static FlashOrderResult success(String requestId, Long orderId, String orderSn) {
+        FlashOrderResult result = queued(requestId);
+        result.setStatus(1);
+        result.setOrderId(orderId);
+        result.setOrderSn(orderSn);
+        return result;
+    }
+
+    public static FlashOrderResult failed(String requestId, String message) {
+        FlashOrderResult result = queued(requestId);
+        result.setStatus(2);
+        result.setMessage(message);
+        return result;
+    }
+}
@@ -0,0 +1,19 @@
+package com.macro.mall.portal.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.macro.mall.model.PmsProduct;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 首页推荐商品及其游标分页排序字段封装
+ * Created by macro on 2026/10/19.
+ */
+@Getter
+@Setter
+public class HomeCursorProduct extends PmsProduct {
+    @JsonIgnore
+    private Integer cursorSort;
+    @JsonIgnore
+    private Long cursorId;
+}
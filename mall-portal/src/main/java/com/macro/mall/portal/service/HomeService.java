@@ -1,9 +1,11 @@
 package com.macro.mall.portal.service;
 
+import com.macro.mall.common.api.CommonCursorPage;
 import com.macro.mall.model.CmsSubject;
 import com.macro.mall.model.PmsProduct;
 import com.macro.mall.model.PmsProductCategory;
 import com.macro.mall.portal.domain.HomeContentResult;
+import com.macro.mall.portal.domain.HomeCursorProduct;
 
 import java.util.List;
 
@@ -44,4 +46,22 @@ public interface HomeService {
      * 分页获取新品推荐商品
      */
     List<PmsProduct> newProductList(Integer pageNum, Integer pageSize);
+
+    /**
+     * 按游标获取首页商品推荐
+     * @param cursor 上一页返回的游标，为空时获取第一页
+     */
+    CommonCursorPage<PmsProduct> recommendProductCursor(String cursor, Integer pageSize);
+
+    /**
+     * 按游标获取人气推荐商品
+     * @param cursor 上一页返回的游标，为空时获取第一页
+     */
+    CommonCursorPage<HomeCursorProduct> hotProductCursor(String cursor, Integer pageSize);
+
+    /**
+     * 按游标获取新品推荐商品
+     * @param cursor 上一页返回的游标，为空时获取第一页
+     */
+    CommonCursorPage<HomeCursorProduct> newProductCursor(String cursor, Integer pageSize);
 }
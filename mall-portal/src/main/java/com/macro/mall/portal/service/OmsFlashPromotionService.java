@@ -0,0 +1,29 @@
+package com.macro.mall.portal.service;
+
+import com.macro.mall.portal.domain.FlashOrderParam;
+import com.macro.mall.portal.domain.FlashOrderResult;
+
+/**
+ * 秒杀下单Service
+ * Created by macro on 2026/10/19.
+ */
+public interface OmsFlashPromotionService {
+    /**
+     * 秒杀抢购下单，抢购成功后进入下单队列异步生成订单
+     *
+     * @return 下单请求ID，用于查询下单结果
+     */
+    String generateFlashOrder(FlashOrderParam orderParam);
+
+    /**
+     * 根据下单请求ID获取秒杀下单结果
+     */
+    FlashOrderResult getFlashOrderResult(String requestId);
+
+    /**
+     * 预加载当前场次的秒杀商品及库存
+     *
+     * @return 加载的秒杀商品数量
+     */
+    int preload();
+}
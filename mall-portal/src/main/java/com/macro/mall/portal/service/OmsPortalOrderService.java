@@ -1,9 +1,7 @@
 package com.macro.mall.portal.service;
 
 import com.macro.mall.common.api.CommonPage;
-import com.macro.mall.portal.domain.ConfirmOrderResult;
-import com.macro.mall.portal.domain.OmsOrderDetail;
-import com.macro.mall.portal.domain.OrderParam;
+import com.macro.mall.portal.domain.*;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -25,6 +23,12 @@ public interface OmsPortalOrderService {
     @Transactional
     Map<String, Object> generateOrder(OrderParam orderParam);
 
+    /**
+     * 根据已抢购成功的秒杀请求批量生成订单
+     */
+    @Transactional
+    List<FlashOrderResult> generateFlashOrderList(List<FlashOrderRequest> requestList);
+
     /**
      * 支付成功后的回调
      */
@@ -0,0 +1,37 @@
+package com.macro.mall.portal.service;
+
+import com.macro.mall.portal.domain.PmsPortalProductDetail;
+import com.macro.mall.portal.domain.PmsProductCategoryNode;
+
+import java.util.List;
+
+/**
+ * 前台商品详情缓存业务类
+ * Created by macro on 2026/10/19.
+ */
+public interface PmsPortalProductCacheService {
+    /**
+     * 获取商品详情缓存，先查本地缓存再查Redis
+     */
+    PmsPortalProductDetail getDetail(Long productId);
+
+    /**
+     * 设置商品详情缓存
+     */
+    void setDetail(PmsPortalProductDetail detail);
+
+    /**
+     * 删除本地商品详情缓存
+     */
+    void delLocalDetail(Long productId);
+
+    /**
+     * 获取商品分类树缓存
+     */
+    List<PmsProductCategoryNode> getCategoryTree();
+
+    /**
+     * 设置商品分类树缓存
+     */
+    void setCategoryTree(List<PmsProductCategoryNode> categoryTree);
+}
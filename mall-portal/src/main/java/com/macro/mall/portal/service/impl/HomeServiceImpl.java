@@ -1,11 +1,13 @@
 package com.macro.mall.portal.service.impl;
 
 import com.github.pagehelper.PageHelper;
+import com.macro.mall.common.api.CommonCursorPage;
 import com.macro.mall.mapper.*;
 import com.macro.mall.model.*;
 import com.macro.mall.portal.dao.HomeDao;
 import com.macro.mall.portal.domain.FlashPromotionProduct;
 import com.macro.mall.portal.domain.HomeContentResult;
+import com.macro.mall.portal.domain.HomeCursorProduct;
 import com.macro.mall.portal.domain.HomeFlashPromotion;
 import com.macro.mall.portal.service.HomeService;
 import com.macro.mall.portal.util.DateUtil;
@@ -100,6 +102,44 @@ public class HomeServiceImpl implements HomeService {
         return homeDao.getNewProductList(offset, pageSize);
     }
 
+    @Override
+    public CommonCursorPage<PmsProduct> recommendProductCursor(String cursor, Integer pageSize) {
+        CommonCursorPage.checkPageSize(pageSize);
+        String[] values = CommonCursorPage.decodeCursor(cursor, 1);
+        //多查一条用于判断是否有下一页，不查询总数
+        PageHelper.startPage(1, pageSize + 1, false);
+        PmsProductExample example = new PmsProductExample();
+        PmsProductExample.Criteria criteria = example.createCriteria()
+                .andDeleteStatusEqualTo(0)
+                .andPublishStatusEqualTo(1);
+        if (values != null) {
+            criteria.andIdGreaterThan(CommonCursorPage.parseLong(values[0]));
+        }
+        example.setOrderByClause("id asc");
+        List<PmsProduct> productList = productMapper.selectByExample(example);
+        return CommonCursorPage.restPage(productList, pageSize, product -> CommonCursorPage.encodeCursor(product.getId()));
+    }
+
+    @Override
+    public CommonCursorPage<HomeCursorProduct> hotProductCursor(String cursor, Integer pageSize) {
+        CommonCursorPage.checkPageSize(pageSize);
+        String[] values = CommonCursorPage.decodeCursor(cursor, 2);
+        List<HomeCursorProduct> productList = values == null
+                ? homeDao.getHotProductListByCursor(null, null, pageSize + 1)
+                : homeDao.getHotProductListByCursor(CommonCursorPage.parseInt(values[0]), CommonCursorPage.parseLong(values[1]), pageSize + 1);
+        return CommonCursorPage.restPage(productList, pageSize, product -> CommonCursorPage.encodeCursor(product.getCursorSort(), product.getCursorId()));
+    }
+
+    @Override
+    public CommonCursorPage<HomeCursorProduct> newProductCursor(String cursor, Integer pageSize) {
+        CommonCursorPage.checkPageSize(pageSize);
+        String[] values = CommonCursorPage.decodeCursor(cursor, 2);
+        List<HomeCursorProduct> productList = values == null
+                ? homeDao.getNewProductListByCursor(null, null, pageSize + 1)
+                : homeDao.getNewProductListByCursor(CommonCursorPage.parseInt(values[0]), CommonCursorPage.parseLong(values[1]), pageSize + 1);
+        return CommonCursorPage.restPage(productList, pageSize, product -> CommonCursorPage.encodeCursor(product.getCursorSort(), product.getCursorId()));
+    }
+
     private HomeFlashPromotion getHomeFlashPromotion() {
         HomeFlashPromotion homeFlashPromotion = new HomeFlashPromotion();
         //获取当前秒杀活动
@@ -0,0 +1,279 @@
+package com.macro.mall.portal.service.impl;
+
+import cn.hutool.core.util.IdUtil;
+import com.macro.mall.common.exception.Asserts;
+import com.macro.mall.common.service.RedisService;
+import com.macro.mall.mapper.SmsFlashPromotionMapper;
+import com.macro.mall.mapper.SmsFlashPromotionProductRelationMapper;
+import com.macro.mall.mapper.SmsFlashPromotionSessionMapper;
+import com.macro.mall.model.*;
+import com.macro.mall.portal.component.FlashPromotionStockStore;
+import com.macro.mall.portal.domain.FlashOrderParam;
+import com.macro.mall.portal.domain.FlashOrderRequest;
+import com.macro.mall.portal.domain.FlashOrderResult;
+import com.macro.mall.portal.service.OmsFlashPromotionService;
+import com.macro.mall.portal.service.OmsPortalOrderService;
+import com.macro.mall.portal.service.UmsMemberService;
+import com.macro.mall.portal.util.DateUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 秒杀下单Service实现类
+ * 抢购请求先通过{@link FlashPromotionStockStore}原子扣减秒杀库存，成功后进入有界队列，
+ * 由固定数量的下单线程批量生成订单，避免高并发直接冲击数据库
+ * Created by macro on 2026/10/19.
+ */
+@Service
+public class OmsFlashPromotionServiceImpl implements OmsFlashPromotionService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OmsFlashPromotionServiceImpl.class);
+    @Autowired
+    private SmsFlashPromotionMapper flashPromotionMapper;
+    @Autowired
+    private SmsFlashPromotionSessionMapper promotionSessionMapper;
+    @Autowired
+    private SmsFlashPromotionProductRelationMapper relationMapper;
+    @Autowired
+    private FlashPromotionStockStore flashPromotionStockStore;
+    @Autowired
+    private OmsPortalOrderService portalOrderService;
+    @Autowired
+    private UmsMemberService memberService;
+    @Autowired
+    private RedisService redisService;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.key.flashOrder}")
+    private String REDIS_KEY_FLASH_ORDER;
+    @Value("${redis.expire.common}")
+    private Long REDIS_EXPIRE;
+    @Value("${flash.queueCapacity:10000}")
+    private Integer QUEUE_CAPACITY;
+    @Value("${flash.workerCount:4}")
+    private Integer WORKER_COUNT;
+    @Value("${flash.batchSize:50}")
+    private Integer BATCH_SIZE;
+    /**
+     * 当前场次的秒杀商品，由定时任务刷新
+     */
+    private volatile Map<Long, SmsFlashPromotionProductRelation> relationMap = Collections.emptyMap();
+    private BlockingQueue<FlashOrderRequest> requestQueue;
+    private ExecutorService workerExecutor;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        requestQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        workerExecutor = Executors.newFixedThreadPool(WORKER_COUNT, new ThreadFactory() {
+            private int index = 0;
+
+            @Override
+            public synchronized Thread newThread(Runnable r) {
+                return new Thread(r, "flash-order-worker-" + (index++));
+            }
+        });
+        running = true;
+        for (int i = 0; i < WORKER_COUNT; i++) {
+            workerExecutor.execute(this::processRequest);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        //停止接收新请求，下单线程处理完队列中剩余请求后退出
+        running = false;
+        workerExecutor.shutdown();
+        if (!workerExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+            LOGGER.warn("秒杀下单队列未处理完成，剩余请求数量：{}", requestQueue.size());
+            workerExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public String generateFlashOrder(FlashOrderParam orderParam) {
+        if (!running) {
+            Asserts.fail("当前抢购人数过多，请稍后再试");
+        }
+        SmsFlashPromotionProductRelation relation = relationMap.get(orderParam.getFlashPromotionRelationId());
+        if (relation == null) {
+            Asserts.fail("该商品不在秒杀活动中");
+        }
+        int quantity = orderParam.getQuantity() == null ? 1 : orderParam.getQuantity();
+        if (quantity <= 0) {
+            Asserts.fail("购买数量不正确");
+        }
+        UmsMember currentMember = memberService.getCurrentMember();
+        int limit = relation.getFlashPromotionLimit() == null ? 0 : relation.getFlashPromotionLimit();
+        int code = flashPromotionStockStore.acquire(relation.getId(), currentMember.getId(), quantity, limit);
+        if (code == FlashPromotionStockStore.SOLD_OUT) {
+            Asserts.fail("商品已抢完");
+        } else if (code == FlashPromotionStockStore.OVER_LIMIT) {
+            Asserts.fail("超过每人限购数量");
+        } else if (code != FlashPromotionStockStore.ADMITTED) {
+            Asserts.fail("该商品不在秒杀活动中");
+        }
+        FlashOrderRequest request = new FlashOrderRequest();
+        request.setRequestId(IdUtil.fastSimpleUUID());
+        request.setMemberId(currentMember.getId());
+        request.setMemberUsername(currentMember.getUsername());
+        request.setMemberPhone(currentMember.getPhone());
+        request.setFlashPromotionRelationId(relation.getId());
+        request.setProductId(relation.getProductId());
+        request.setProductSkuId(orderParam.getProductSkuId());
+        request.setQuantity(quantity);
+        request.setFlashPromotionPrice(relation.getFlashPromotionPrice());
+        request.setMemberReceiveAddressId(orderParam.getMemberReceiveAddressId());
+        request.setPayType(orderParam.getPayType());
+        request.setCreateTime(new Date());
+        setResult(FlashOrderResult.queued(request.getRequestId()));
+        if (!requestQueue.offer(request)) {
+            flashPromotionStockStore.release(relation.getId(), currentMember.getId(), quantity);
+            redisService.del(getResultKey(request.getRequestId()));
+            Asserts.fail("当前抢购人数过多，请稍后再试");
+        }
+        return request.getRequestId();
+    }
+
+    @Override
+    public FlashOrderResult getFlashOrderResult(String requestId) {
+        return (FlashOrderResult) redisService.get(getResultKey(requestId));
+    }
+
+    @Override
+    public int preload() {
+        Date now = new Date();
+        SmsFlashPromotion flashPromotion = getFlashPromotion(now);
+        SmsFlashPromotionSession flashPromotionSession = getFlashPromotionSession(now);
+        if (flashPromotion == null || flashPromotionSession == null) {
+            relationMap = Collections.emptyMap();
+            return 0;
+        }
+        SmsFlashPromotionProductRelationExample example = new SmsFlashPromotionProductRelationExample();
+        example.createCriteria()
+                .andFlashPromotionIdEqualTo(flashPromotion.getId())
+                .andFlashPromotionSessionIdEqualTo(flashPromotionSession.getId());
+        List<SmsFlashPromotionProductRelation> relationList = relationMapper.selectByExample(example);
+        //库存计数在本场次结束时失效
+        long expireSeconds = (getSessionEndTime(now, flashPromotionSession.getEndTime()) - now.getTime()) / 1000;
+        Map<Long, SmsFlashPromotionProductRelation> newRelationMap = new HashMap<>();
+        for (SmsFlashPromotionProductRelation relation : relationList) {
+            if (relation.getFlashPromotionCount() == null || expireSeconds <= 0) {
+                continue;
+            }
+            flashPromotionStockStore.load(relation.getId(), relation.getFlashPromotionCount(), expireSeconds);
+            newRelationMap.put(relation.getId(), relation);
+        }
+        relationMap = newRelationMap;
+        return newRelationMap.size();
+    }
+
+    /**
+     * 下单线程：阻塞获取请求后批量取出队列中的请求一次性生成订单
+     */
+    private void processRequest() {
+        List<FlashOrderRequest> batchList = new ArrayList<>(BATCH_SIZE);
+        while (running || !requestQueue.isEmpty()) {
+            try {
+                FlashOrderRequest request = requestQueue.poll(1, TimeUnit.SECONDS);
+                if (request == null) {
+                    continue;
+                }
+                batchList.add(request);
+                requestQueue.drainTo(batchList, BATCH_SIZE - 1);
+                handleBatch(batchList);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOGGER.error("秒杀下单线程处理异常", e);
+            } finally {
+                batchList.clear();
+            }
+        }
+    }
+
+    private void handleBatch(List<FlashOrderRequest> batchList) {
+        List<FlashOrderResult> resultList;
+        try {
+            resultList = portalOrderService.generateFlashOrderList(batchList);
+        } catch (Exception e) {
+            LOGGER.error("秒杀批量下单失败，请求数量：{}", batchList.size(), e);
+            resultList = new ArrayList<>();
+            for (FlashOrderRequest request : batchList) {
+                resultList.add(FlashOrderResult.failed(request.getRequestId(), "下单失败，请稍后再试"));
+            }
+        }
+        Map<String, FlashOrderRequest> requestMap = new HashMap<>();
+        for (FlashOrderRequest request : batchList) {
+            requestMap.put(request.getRequestId(), request);
+        }
+        for (FlashOrderResult result : resultList) {
+            if (result.getStatus() == 2) {
+                //下单失败时归还秒杀库存及会员已购数量
+                FlashOrderRequest request = requestMap.get(result.getRequestId());
+                flashPromotionStockStore.release(request.getFlashPromotionRelationId(), request.getMemberId(), request.getQuantity());
+            }
+            setResult(result);
+        }
+    }
+
+    private void setResult(FlashOrderResult result) {
+        redisService.set(getResultKey(result.getRequestId()), result, REDIS_EXPIRE);
+    }
+
+    private String getResultKey(String requestId) {
+        return REDIS_DATABASE + ":" + REDIS_KEY_FLASH_ORDER + ":" + requestId;
+    }
+
+    /**
+     * 将场次结束时间合并到当天日期上
+     */
+    private long getSessionEndTime(Date now, Date endTime) {
+        Calendar time = Calendar.getInstance();
+        time.setTime(endTime);
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(now);
+        calendar.set(Calendar.HOUR_OF_DAY, time.get(Calendar.HOUR_OF_DAY));
+        calendar.set(Calendar.MINUTE, time.get(Calendar.MINUTE));
+        calendar.set(Calendar.SECOND, time.get(Calendar.SECOND));
+        return calendar.getTimeInMillis();
+    }
+
+    //根据时间获取秒杀活动
+    private SmsFlashPromotion getFlashPromotion(Date date) {
+        Date currDate = DateUtil.getDate(date);
+        SmsFlashPromotionExample example = new SmsFlashPromotionExample();
+        example.createCriteria()
+                .andStatusEqualTo(1)
+                .andStartDateLessThanOrEqualTo(currDate)
+                .andEndDateGreaterThanOrEqualTo(currDate);
+        List<SmsFlashPromotion> flashPromotionList = flashPromotionMapper.selectByExample(example);
+        if (!CollectionUtils.isEmpty(flashPromotionList)) {
+            return flashPromotionList.get(0);
+        }
+        return null;
+    }
+
+    //根据时间获取秒杀场次
+    private SmsFlashPromotionSession getFlashPromotionSession(Date date) {
+        Date currTime = DateUtil.getTime(date);
+        SmsFlashPromotionSessionExample sessionExample = new SmsFlashPromotionSessionExample();
+        sessionExample.createCriteria()
+                .andStartTimeLessThanOrEqualTo(currTime)
+                .andEndTimeGreaterThanOrEqualTo(currTime);
+        List<SmsFlashPromotionSession> promotionSessionList = promotionSessionMapper.selectByExample(sessionExample);
+        if (!CollectionUtils.isEmpty(promotionSessionList)) {
+            return promotionSessionList.get(0);
+        }
+        return null;
+    }
+}
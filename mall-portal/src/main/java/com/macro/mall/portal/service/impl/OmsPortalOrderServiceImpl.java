@@ -12,6 +12,7 @@ import com.macro.mall.portal.component.CancelOrderSender;
 import com.macro.mall.portal.dao.PortalOrderDao;
 import com.macro.mall.portal.dao.PortalOrderItemDao;
 import com.macro.mall.portal.dao.SmsCouponHistoryDao;
+import com.macro.mall.portal.dao.SmsFlashPromotionDao;
 import com.macro.mall.portal.domain.*;
 import com.macro.mall.portal.service.*;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +25,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -67,6 +69,12 @@ public class OmsPortalOrderServiceImpl implements OmsPortalOrderService {
     private OmsOrderItemMapper orderItemMapper;
     @Autowired
     private CancelOrderSender cancelOrderSender;
+    @Autowired
+    private PmsProductMapper productMapper;
+    @Autowired
+    private UmsMemberReceiveAddressMapper memberReceiveAddressMapper;
+    @Autowired
+    private SmsFlashPromotionDao flashPromotionDao;
 
     @Override
     public ConfirmOrderResult generateConfirmOrder(List<Long> cartIds) {
@@ -251,6 +259,75 @@ public class OmsPortalOrderServiceImpl implements OmsPortalOrderService {
         return result;
     }
 
+    @Override
+    public List<FlashOrderResult> generateFlashOrderList(List<FlashOrderRequest> requestList) {
+        List<FlashOrderResult> resultList = new ArrayList<>();
+        if (CollUtil.isEmpty(requestList)) {
+            return resultList;
+        }
+        //批量获取下单商品、SKU及收货地址信息
+        Map<Long, PmsProduct> productMap = getFlashProductMap(requestList);
+        Map<Long, PmsSkuStock> skuStockMap = getFlashSkuStockMap(requestList);
+        Map<Long, UmsMemberReceiveAddress> addressMap = getFlashAddressMap(requestList);
+        OmsOrderSetting orderSetting = orderSettingMapper.selectByPrimaryKey(1L);
+        List<OmsOrder> orderList = new ArrayList<>();
+        List<OmsOrderItem> orderItemList = new ArrayList<>();
+        List<SmsFlashPromotionLog> flashPromotionLogList = new ArrayList<>();
+        Map<Long, Integer> relationCountMap = new HashMap<>();
+        for (FlashOrderRequest request : requestList) {
+            PmsProduct product = productMap.get(request.getProductId());
+            PmsSkuStock skuStock = skuStockMap.get(request.getProductSkuId());
+            if (product == null || skuStock == null || !product.getId().equals(skuStock.getProductId())) {
+                resultList.add(FlashOrderResult.failed(request.getRequestId(), "商品不存在"));
+                continue;
+            }
+            UmsMemberReceiveAddress address = addressMap.get(request.getMemberReceiveAddressId());
+            if (address == null || !request.getMemberId().equals(address.getMemberId())) {
+                resultList.add(FlashOrderResult.failed(request.getRequestId(), "请选择收货地址！"));
+                continue;
+            }
+            //进行库存锁定
+            int count = portalOrderDao.lockStockBySkuId(request.getProductSkuId(), request.getQuantity());
+            if (count == 0) {
+                resultList.add(FlashOrderResult.failed(request.getRequestId(), "库存不足，无法下单"));
+                continue;
+            }
+            OmsOrderItem orderItem = createFlashOrderItem(request, product, skuStock);
+            OmsOrder order = createFlashOrder(request, orderItem, address, orderSetting);
+            orderMapper.insert(order);
+            orderItem.setOrderId(order.getId());
+            orderItem.setOrderSn(order.getOrderSn());
+            orderList.add(order);
+            orderItemList.add(orderItem);
+            //记录秒杀信息
+            SmsFlashPromotionLog flashPromotionLog = new SmsFlashPromotionLog();
+            flashPromotionLog.setMemberId(request.getMemberId().intValue());
+            flashPromotionLog.setMemberPhone(request.getMemberPhone());
+            flashPromotionLog.setProductId(product.getId());
+            flashPromotionLog.setProductName(product.getName());
+            flashPromotionLog.setSubscribeTime(request.getCreateTime());
+            flashPromotionLog.setSendTime(order.getCreateTime());
+            flashPromotionLogList.add(flashPromotionLog);
+            relationCountMap.merge(request.getFlashPromotionRelationId(), request.getQuantity(), Integer::sum);
+            resultList.add(FlashOrderResult.success(request.getRequestId(), order.getId(), order.getOrderSn()));
+        }
+        if (CollUtil.isEmpty(orderList)) {
+            return resultList;
+        }
+        //批量插入order_item表及秒杀记录，并按秒杀商品合并扣减秒杀数量
+        orderItemDao.insertList(orderItemList);
+        flashPromotionDao.insertLogList(flashPromotionLogList);
+        for (Map.Entry<Long, Integer> entry : relationCountMap.entrySet()) {
+            flashPromotionDao.reduceFlashPromotionCount(entry.getKey(), entry.getValue());
+        }
+        //发送延迟消息取消超时未支付的秒杀订单
+        long delayTimes = orderSetting.getFlashOrderOvertime() * 60 * 1000L;
+        for (OmsOrder order : orderList) {
+            cancelOrderSender.sendMessage(order.getId(), delayTimes);
+        }
+        return resultList;
+    }
+
     @Override
     public Integer paySuccess(Long orderId, Integer payType) {
         //修改订单支付状态
@@ -476,6 +553,97 @@ public class OmsPortalOrderServiceImpl implements OmsPortalOrderService {
         return sb.toString();
     }
 
+    /**
+     * 生成秒杀订单商品信息
+     */
+    private OmsOrderItem createFlashOrderItem(FlashOrderRequest request, PmsProduct product, PmsSkuStock skuStock) {
+        OmsOrderItem orderItem = new OmsOrderItem();
+        orderItem.setProductId(product.getId());
+        orderItem.setProductName(product.getName());
+        orderItem.setProductPic(product.getPic());
+        orderItem.setProductAttr(skuStock.getSpData());
+        orderItem.setProductBrand(product.getBrandName());
+        orderItem.setProductSn(product.getProductSn());
+        orderItem.setProductPrice(request.getFlashPromotionPrice());
+        orderItem.setProductQuantity(request.getQuantity());
+        orderItem.setProductSkuId(skuStock.getId());
+        orderItem.setProductSkuCode(skuStock.getSkuCode());
+        orderItem.setProductCategoryId(product.getProductCategoryId());
+        orderItem.setPromotionName("秒杀特价");
+        orderItem.setPromotionAmount(new BigDecimal(0));
+        orderItem.setCouponAmount(new BigDecimal(0));
+        orderItem.setIntegrationAmount(new BigDecimal(0));
+        orderItem.setRealAmount(request.getFlashPromotionPrice());
+        orderItem.setGiftIntegration(product.getGiftPoint() == null ? 0 : product.getGiftPoint());
+        orderItem.setGiftGrowth(product.getGiftGrowth() == null ? 0 : product.getGiftGrowth());
+        return orderItem;
+    }
+
+    /**
+     * 生成秒杀订单，秒杀订单不支持使用优惠券及积分
+     */
+    private OmsOrder createFlashOrder(FlashOrderRequest request, OmsOrderItem orderItem, UmsMemberReceiveAddress address, OmsOrderSetting orderSetting) {
+        List<OmsOrderItem> orderItemList = Collections.singletonList(orderItem);
+        OmsOrder order = new OmsOrder();
+        order.setDiscountAmount(new BigDecimal(0));
+        order.setTotalAmount(calcTotalAmount(orderItemList));
+        order.setFreightAmount(new BigDecimal(0));
+        order.setPromotionAmount(new BigDecimal(0));
+        order.setPromotionInfo(orderItem.getPromotionName());
+        order.setCouponAmount(new BigDecimal(0));
+        order.setIntegrationAmount(new BigDecimal(0));
+        order.setPayAmount(calcPayAmount(order));
+        order.setMemberId(request.getMemberId());
+        order.setCreateTime(new Date());
+        order.setMemberUsername(request.getMemberUsername());
+        order.setPayType(request.getPayType() == null ? 0 : request.getPayType());
+        order.setSourceType(1);
+        order.setStatus(0);
+        //订单类型：0->正常订单；1->秒杀订单
+        order.setOrderType(1);
+        order.setReceiverName(address.getName());
+        order.setReceiverPhone(address.getPhoneNumber());
+        order.setReceiverPostCode(address.getPostCode());
+        order.setReceiverProvince(address.getProvince());
+        order.setReceiverCity(address.getCity());
+        order.setReceiverRegion(address.getRegion());
+        order.setReceiverDetailAddress(address.getDetailAddress());
+        order.setConfirmStatus(0);
+        order.setDeleteStatus(0);
+        order.setIntegration(calcGifIntegration(orderItemList));
+        order.setGrowth(calcGiftGrowth(orderItemList));
+        order.setOrderSn(generateOrderSn(order));
+        if (orderSetting != null) {
+            order.setAutoConfirmDay(orderSetting.getConfirmOvertime());
+        }
+        return order;
+    }
+
+    private Map<Long, PmsProduct> getFlashProductMap(List<FlashOrderRequest> requestList) {
+        List<Long> productIds = requestList.stream().map(FlashOrderRequest::getProductId).distinct().collect(Collectors.toList());
+        PmsProductExample example = new PmsProductExample();
+        example.createCriteria().andIdIn(productIds);
+        return productMapper.selectByExample(example).stream().collect(Collectors.toMap(PmsProduct::getId, Function.identity()));
+    }
+
+    private Map<Long, PmsSkuStock> getFlashSkuStockMap(List<FlashOrderRequest> requestList) {
+        List<Long> skuIds = requestList.stream().map(FlashOrderRequest::getProductSkuId).distinct().collect(Collectors.toList());
+        PmsSkuStockExample example = new PmsSkuStockExample();
+        example.createCriteria().andIdIn(skuIds);
+        return skuStockMapper.selectByExample(example).stream().collect(Collectors.toMap(PmsSkuStock::getId, Function.identity()));
+    }
+
+    private Map<Long, UmsMemberReceiveAddress> getFlashAddressMap(List<FlashOrderRequest> requestList) {
+        List<Long> addressIds = requestList.stream().map(FlashOrderRequest::getMemberReceiveAddressId)
+                .filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (CollUtil.isEmpty(addressIds)) {
+            return new HashMap<>();
+        }
+        UmsMemberReceiveAddressExample example = new UmsMemberReceiveAddressExample();
+        example.createCriteria().andIdIn(addressIds);
+        return memberReceiveAddressMapper.selectByExample(example).stream().collect(Collectors.toMap(UmsMemberReceiveAddress::getId, Function.identity()));
+    }
+
     /**
      * 从购物车中删除已下单的商品信息
      */
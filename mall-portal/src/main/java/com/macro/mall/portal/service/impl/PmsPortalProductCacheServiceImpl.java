@@ -0,0 +1,106 @@
+package com.macro.mall.portal.service.impl;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.core.util.StrUtil;
+import com.macro.mall.common.service.RedisService;
+import com.macro.mall.portal.domain.PmsPortalProductDetail;
+import com.macro.mall.portal.domain.PmsProductCategoryNode;
+import com.macro.mall.portal.service.PmsPortalProductCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * 前台商品详情缓存Service实现类
+ * 本地LRU缓存热门商品详情，Redis作为二级缓存；后台修改商品后通过Redis频道通知各节点清除本地缓存
+ * Created by macro on 2026/10/19.
+ */
+@Service
+public class PmsPortalProductCacheServiceImpl implements PmsPortalProductCacheService {
+    @Autowired
+    private RedisService redisService;
+    @Autowired
+    private RedisSerializer<Object> redisSerializer;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.expire.common}")
+    private Long REDIS_EXPIRE;
+    @Value("${redis.key.productDetail}")
+    private String REDIS_KEY_PRODUCT_DETAIL;
+    @Value("${redis.key.categoryTree}")
+    private String REDIS_KEY_CATEGORY_TREE;
+    @Value("${redis.channel.productDetail}")
+    private String REDIS_CHANNEL_PRODUCT_DETAIL;
+    @Value("${redis.local.productDetail.capacity:1000}")
+    private Integer LOCAL_CAPACITY;
+    @Value("${redis.local.productDetail.expire:300}")
+    private Long LOCAL_EXPIRE;
+    private Cache<Long, PmsPortalProductDetail> localCache;
+
+    @PostConstruct
+    public void init() {
+        localCache = CacheUtil.newLRUCache(LOCAL_CAPACITY, LOCAL_EXPIRE * 1000);
+        //消息内容为以逗号分隔的商品ID，为空时清除全部本地缓存
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            String ids = (String) redisSerializer.deserialize(message.getBody());
+            if (StrUtil.isEmpty(ids)) {
+                localCache.clear();
+                return;
+            }
+            for (String id : StrUtil.split(ids, ',')) {
+                delLocalDetail(Long.valueOf(id.trim()));
+            }
+        }, new ChannelTopic(REDIS_DATABASE + ":" + REDIS_CHANNEL_PRODUCT_DETAIL));
+    }
+
+    @Override
+    public PmsPortalProductDetail getDetail(Long productId) {
+        //不刷新访问时间，热门商品的本地缓存也按固定时间过期
+        PmsPortalProductDetail detail = localCache.get(productId, false);
+        if (detail != null) {
+            return detail;
+        }
+        detail = (PmsPortalProductDetail) redisService.get(getKey(productId));
+        if (detail != null) {
+            localCache.put(productId, detail);
+        }
+        return detail;
+    }
+
+    @Override
+    public void setDetail(PmsPortalProductDetail detail) {
+        Long productId = detail.getProduct().getId();
+        localCache.put(productId, detail);
+        redisService.set(getKey(productId), detail, REDIS_EXPIRE);
+    }
+
+    @Override
+    public void delLocalDetail(Long productId) {
+        localCache.remove(productId);
+    }
+
+    @Override
+    public List<PmsProductCategoryNode> getCategoryTree() {
+        String key = REDIS_DATABASE + ":" + REDIS_KEY_CATEGORY_TREE;
+        return (List<PmsProductCategoryNode>) redisService.get(key);
+    }
+
+    @Override
+    public void setCategoryTree(List<PmsProductCategoryNode> categoryTree) {
+        String key = REDIS_DATABASE + ":" + REDIS_KEY_CATEGORY_TREE;
+        redisService.set(key, categoryTree, REDIS_EXPIRE);
+    }
+
+    private String getKey(Long productId) {
+        return REDIS_DATABASE + ":" + REDIS_KEY_PRODUCT_DETAIL + ":" + productId;
+    }
+}
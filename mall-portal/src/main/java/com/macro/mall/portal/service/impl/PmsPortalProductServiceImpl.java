@@ -5,15 +5,19 @@ import cn.hutool.core.util.StrUtil;
 import com.github.pagehelper.PageHelper;
 import com.macro.mall.mapper.*;
 import com.macro.mall.model.*;
+import com.macro.mall.portal.component.ProductSearchIndex;
 import com.macro.mall.portal.dao.PortalProductDao;
 import com.macro.mall.portal.domain.PmsPortalProductDetail;
 import com.macro.mall.portal.domain.PmsProductCategoryNode;
+import com.macro.mall.portal.service.PmsPortalProductCacheService;
 import com.macro.mall.portal.service.PmsPortalProductService;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -40,9 +44,17 @@ public class PmsPortalProductServiceImpl implements PmsPortalProductService {
     private PmsProductFullReductionMapper productFullReductionMapper;
     @Autowired
     private PortalProductDao portalProductDao;
+    @Autowired
+    private PmsPortalProductCacheService productCacheService;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
 
     @Override
     public List<PmsProduct> search(String keyword, Long brandId, Long productCategoryId, Integer pageNum, Integer pageSize, Integer sort) {
+        //优先使用本地搜索索引，索引未构建完成时查询数据库
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.search(keyword, brandId, productCategoryId, pageNum, pageSize, sort);
+        }
         PageHelper.startPage(pageNum, pageSize);
         PmsProductExample example = new PmsProductExample();
         PmsProductExample.Criteria criteria = example.createCriteria();
@@ -72,17 +84,43 @@ public class PmsPortalProductServiceImpl implements PmsPortalProductService {
 
     @Override
     public List<PmsProductCategoryNode> categoryTreeList() {
+        List<PmsProductCategoryNode> result = productCacheService.getCategoryTree();
+        if (result != null) {
+            return result;
+        }
         PmsProductCategoryExample example = new PmsProductCategoryExample();
         List<PmsProductCategory> allList = productCategoryMapper.selectByExample(example);
-        List<PmsProductCategoryNode> result = allList.stream()
-                .filter(item -> item.getParentId().equals(0L))
-                .map(item -> covert(item, allList))
+        //按父分类ID分组一次，避免每个节点都遍历全部分类
+        Map<Long, List<PmsProductCategory>> childrenMap = allList.stream()
+                .collect(Collectors.groupingBy(PmsProductCategory::getParentId));
+        result = childrenMap.getOrDefault(0L, Collections.emptyList()).stream()
+                .map(item -> covert(item, childrenMap))
                 .collect(Collectors.toList());
+        productCacheService.setCategoryTree(result);
         return result;
     }
 
     @Override
     public PmsPortalProductDetail detail(Long id) {
+        PmsPortalProductDetail cacheDetail = productCacheService.getDetail(id);
+        if (cacheDetail == null) {
+            PmsPortalProductDetail result = getDetailFromDb(id);
+            productCacheService.setDetail(result);
+            return result;
+        }
+        //SKU库存实时变化，不从缓存中获取
+        PmsPortalProductDetail result = new PmsPortalProductDetail();
+        BeanUtils.copyProperties(cacheDetail, result);
+        PmsSkuStockExample skuExample = new PmsSkuStockExample();
+        skuExample.createCriteria().andProductIdEqualTo(id);
+        result.setSkuStockList(skuStockMapper.selectByExample(skuExample));
+        return result;
+    }
+
+    /**
+     * 从数据库中组装商品详情
+     */
+    private PmsPortalProductDetail getDetailFromDb(Long id) {
         PmsPortalProductDetail result = new PmsPortalProductDetail();
         //获取商品信息
         PmsProduct product = productMapper.selectByPrimaryKey(id);
@@ -132,12 +170,11 @@ public class PmsPortalProductServiceImpl implements PmsPortalProductService {
     /**
      * 初始对象转化为节点对象
      */
-    private PmsProductCategoryNode covert(PmsProductCategory item, List<PmsProductCategory> allList) {
+    private PmsProductCategoryNode covert(PmsProductCategory item, Map<Long, List<PmsProductCategory>> childrenMap) {
         PmsProductCategoryNode node = new PmsProductCategoryNode();
         BeanUtils.copyProperties(item, node);
-        List<PmsProductCategoryNode> children = allList.stream()
-                .filter(subItem -> subItem.getParentId().equals(item.getId()))
-                .map(subItem -> covert(subItem, allList)).collect(Collectors.toList());
+        List<PmsProductCategoryNode> children = childrenMap.getOrDefault(item.getId(), Collections.emptyList()).stream()
+                .map(subItem -> covert(subItem, childrenMap)).collect(Collectors.toList());
         node.setChildren(children);
         return node;
     }
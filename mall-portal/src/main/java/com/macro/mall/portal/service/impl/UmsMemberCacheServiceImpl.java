@@ -5,10 +5,13 @@ import com.macro.mall.mapper.UmsMemberMapper;
 import com.macro.mall.model.UmsMember;
 import com.macro.mall.portal.service.UmsMemberCacheService;
 import com.macro.mall.security.annotation.CacheException;
+import com.macro.mall.security.component.UserDetailsCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
+
 /**
  * UmsMemberCacheService实现类
  * Created by macro on 2020/3/14.
@@ -19,6 +22,8 @@ public class UmsMemberCacheServiceImpl implements UmsMemberCacheService {
     private RedisService redisService;
     @Autowired
     private UmsMemberMapper memberMapper;
+    @Autowired
+    private UserDetailsCache userDetailsCache;
     @Value("${redis.database}")
     private String REDIS_DATABASE;
     @Value("${redis.expire.common}")
@@ -36,6 +41,7 @@ public class UmsMemberCacheServiceImpl implements UmsMemberCacheService {
         if (umsMember != null) {
             String key = REDIS_DATABASE + ":" + REDIS_KEY_MEMBER + ":" + umsMember.getUsername();
             redisService.del(key);
+            userDetailsCache.evict(Collections.singletonList(umsMember.getUsername()));
         }
     }
 
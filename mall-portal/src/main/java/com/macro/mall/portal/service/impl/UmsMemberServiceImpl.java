@@ -2,15 +2,18 @@ package com.macro.mall.portal.service.impl;
 
 import cn.hutool.core.util.StrUtil;
 import com.macro.mall.common.exception.Asserts;
+import com.macro.mall.common.util.RequestUtil;
 import com.macro.mall.mapper.UmsMemberLevelMapper;
 import com.macro.mall.mapper.UmsMemberMapper;
 import com.macro.mall.model.UmsMember;
 import com.macro.mall.model.UmsMemberExample;
 import com.macro.mall.model.UmsMemberLevel;
 import com.macro.mall.model.UmsMemberLevelExample;
+import com.macro.mall.portal.component.MemberLoginLogWriter;
 import com.macro.mall.portal.domain.MemberDetails;
 import com.macro.mall.portal.service.UmsMemberCacheService;
 import com.macro.mall.portal.service.UmsMemberService;
+import com.macro.mall.security.component.CredentialVerifier;
 import com.macro.mall.security.util.JwtTokenUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,7 +30,10 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.Date;
 import java.util.List;
 import java.util.Random;
@@ -42,6 +48,8 @@ public class UmsMemberServiceImpl implements UmsMemberService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     @Autowired
+    private CredentialVerifier credentialVerifier;
+    @Autowired
     private JwtTokenUtil jwtTokenUtil;
     @Autowired
     private UmsMemberMapper memberMapper;
@@ -49,6 +57,8 @@ public class UmsMemberServiceImpl implements UmsMemberService {
     private UmsMemberLevelMapper memberLevelMapper;
     @Autowired
     private UmsMemberCacheService memberCacheService;
+    @Autowired
+    private MemberLoginLogWriter loginLogWriter;
     @Value("${redis.key.authCode}")
     private String REDIS_KEY_PREFIX_AUTH_CODE;
     @Value("${redis.expire.authCode}")
@@ -167,18 +177,28 @@ public class UmsMemberServiceImpl implements UmsMemberService {
         //密码需要客户端加密后传递
         try {
             UserDetails userDetails = loadUserByUsername(username);
-            if(!passwordEncoder.matches(password,userDetails.getPassword())){
+            if(!credentialVerifier.matches(username,password,userDetails.getPassword())){
                 throw new BadCredentialsException("密码不正确");
             }
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
             SecurityContextHolder.getContext().setAuthentication(authentication);
             token = jwtTokenUtil.generateToken(userDetails);
+            insertLoginLog(((MemberDetails) userDetails).getUmsMember());
         } catch (AuthenticationException e) {
             LOGGER.warn("登录异常:{}", e.getMessage());
         }
         return token;
     }
 
+    /**
+     * 添加登录记录，由后台线程批量写入
+     */
+    private void insertLoginLog(UmsMember member) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        HttpServletRequest request = attributes.getRequest();
+        loginLogWriter.write(member.getId(), RequestUtil.getRequestIp(request));
+    }
+
     @Override
     public String refreshToken(String token) {
         return jwtTokenUtil.refreshHeadToken(token);
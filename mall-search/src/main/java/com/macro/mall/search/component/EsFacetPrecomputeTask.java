@@ -0,0 +1,34 @@
+package com.macro.mall.search.component;
+
+import com.macro.mall.search.service.EsProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 预先计算空关键词及热门关键词相关品牌、分类、属性的定时器
+ * Created by macro on 2026/10/19.
+ */
+@Component
+@ConditionalOnProperty(prefix = "search", name = "engine", havingValue = "es", matchIfMissing = true)
+public class EsFacetPrecomputeTask {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EsFacetPrecomputeTask.class);
+    @Autowired
+    private EsProductService esProductService;
+
+    /**
+     * 刷新间隔需小于搜索结果缓存的超期时间，保证热门关键词一直命中缓存
+     */
+    @Scheduled(initialDelay = 10000, fixedDelayString = "${esFacet.precomputeInterval:20000}")
+    private void precompute() {
+        try {
+            int count = esProductService.precomputeRelatedInfo();
+            LOGGER.debug("预先计算搜索相关信息的关键词数量：{}", count);
+        } catch (Exception e) {
+            LOGGER.error("预先计算搜索相关信息失败", e);
+        }
+    }
+}
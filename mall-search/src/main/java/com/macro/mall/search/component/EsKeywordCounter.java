@@ -0,0 +1,66 @@
+package com.macro.mall.search.component;
+
+import cn.hutool.core.util.StrUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 搜索关键词计数器，用于找出热门关键词预先计算搜索结果
+ * Created by macro on 2026/10/19.
+ */
+@Component
+@ConditionalOnProperty(prefix = "search", name = "engine", havingValue = "es", matchIfMissing = true)
+public class EsKeywordCounter {
+    @Value("${esFacet.maxKeywords:10000}")
+    private Integer MAX_KEYWORDS;
+    private final Map<String, LongAdder> counterMap = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次关键词搜索，关键词数量达到上限时不再记录新关键词
+     */
+    public void record(String keyword) {
+        if (StrUtil.isEmpty(keyword)) {
+            return;
+        }
+        LongAdder counter = counterMap.get(keyword);
+        if (counter == null) {
+            if (counterMap.size() >= MAX_KEYWORDS) {
+                return;
+            }
+            counter = counterMap.computeIfAbsent(keyword, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * 获取搜索次数最多的关键词
+     */
+    public List<String> top(int size) {
+        return counterMap.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 计数减半并移除不再搜索的关键词，使热门关键词随时间变化
+     */
+    public void decay() {
+        counterMap.entrySet().removeIf(entry -> {
+            long count = entry.getValue().sumThenReset();
+            if (count <= 1) {
+                return true;
+            }
+            entry.getValue().add(count / 2);
+            return false;
+        });
+    }
+}
@@ -0,0 +1,146 @@
+package com.macro.mall.search.component;
+
+import com.macro.mall.search.dao.EsProductDao;
+import com.macro.mall.search.domain.EsProduct;
+import com.macro.mall.search.domain.EsProductImportResult;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 商品批量导入ES组件
+ * 通过MyBatis游标流式读取商品，按批次并发发送bulk请求，并发数达到上限时阻塞读取，避免一次性加载全部商品
+ * Created by macro on 2026/10/19.
+ */
+@Component
+@ConditionalOnProperty(prefix = "search", name = "engine", havingValue = "es", matchIfMissing = true)
+public class EsProductBulkImporter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EsProductBulkImporter.class);
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+    @Autowired
+    private ElasticsearchRestTemplate elasticsearchRestTemplate;
+    @Value("${esImport.batchSize:500}")
+    private Integer BATCH_SIZE;
+    @Value("${esImport.concurrency:4}")
+    private Integer CONCURRENCY;
+    @Value("${esImport.maxRetries:3}")
+    private Integer MAX_RETRIES;
+    @Value("${esImport.retryBackoff:500}")
+    private Long RETRY_BACKOFF;
+
+    /**
+     * 导入所有商品到指定索引
+     */
+    public EsProductImportResult importAll(IndexCoordinates index) {
+        long start = System.currentTimeMillis();
+        AtomicLong success = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long total = 0;
+        Semaphore permits = new Semaphore(CONCURRENCY);
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession();
+             Cursor<EsProduct> cursor = sqlSession.getMapper(EsProductDao.class).getAllEsProductCursor()) {
+            List<IndexQuery> batch = new ArrayList<>(BATCH_SIZE);
+            for (EsProduct esProduct : cursor) {
+                total++;
+                batch.add(new IndexQueryBuilder().withId(String.valueOf(esProduct.getId())).withObject(esProduct).build());
+                if (batch.size() >= BATCH_SIZE) {
+                    submit(executor, permits, batch, index, success, failed);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(executor, permits, batch, index, success, failed);
+            }
+            //获取全部许可即表示所有批次已处理完成
+            permits.acquire(CONCURRENCY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("导入商品到ES被中断", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("导入商品到ES失败", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        EsProductImportResult result = new EsProductImportResult();
+        result.setTotal(total);
+        result.setSuccess(success.get());
+        result.setFailed(failed.get());
+        result.setElapsed(System.currentTimeMillis() - start);
+        result.setThroughput(result.getElapsed() == 0 ? result.getSuccess() : result.getSuccess() * 1000 / result.getElapsed());
+        LOGGER.info("导入商品到ES完成，索引：{}，读取：{}，成功：{}，失败：{}，耗时：{}ms，速度：{}条/秒", index.getIndexName(),
+                result.getTotal(), result.getSuccess(), result.getFailed(), result.getElapsed(), result.getThroughput());
+        return result;
+    }
+
+    /**
+     * 获取许可后提交批次，并发批次已满时阻塞等待
+     */
+    private void submit(ExecutorService executor, Semaphore permits, List<IndexQuery> batch, IndexCoordinates index,
+                        AtomicLong success, AtomicLong failed) throws InterruptedException {
+        permits.acquire();
+        executor.execute(() -> {
+            try {
+                int failedCount = bulkIndex(batch, index);
+                success.addAndGet(batch.size() - failedCount);
+                failed.addAndGet(failedCount);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * 发送bulk请求，只重试失败的文档
+     *
+     * @return 重试后仍失败的文档数量
+     */
+    private int bulkIndex(List<IndexQuery> batch, IndexCoordinates index) {
+        List<IndexQuery> pending = batch;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                elasticsearchRestTemplate.bulkIndex(pending, index);
+                return 0;
+            } catch (BulkFailureException e) {
+                pending = pending.stream()
+                        .filter(query -> e.getFailedDocuments().containsKey(query.getId()))
+                        .collect(Collectors.toList());
+                if (attempt >= MAX_RETRIES) {
+                    LOGGER.warn("批量导入商品失败，失败数量：{}，失败原因：{}", pending.size(), e.getFailedDocuments());
+                    return pending.size();
+                }
+            } catch (Exception e) {
+                if (attempt >= MAX_RETRIES) {
+                    LOGGER.warn("批量导入商品失败，失败数量：{}", pending.size(), e);
+                    return pending.size();
+                }
+            }
+            try {
+                Thread.sleep(RETRY_BACKOFF * (attempt + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return pending.size();
+            }
+        }
+    }
+}
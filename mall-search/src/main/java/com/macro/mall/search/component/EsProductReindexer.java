@@ -0,0 +1,205 @@
+package com.macro.mall.search.component;
+
+import cn.hutool.core.date.DateUtil;
+import com.macro.mall.common.exception.Asserts;
+import com.macro.mall.search.domain.EsProduct;
+import com.macro.mall.search.domain.EsProductImportResult;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.core.CountRequest;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.common.settings.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 商品索引蓝绿重建组件
+ * {@link EsProduct}的索引名作为读写别名，重建时写入新的带版本号索引，校验文档数量后原子切换别名，重建期间搜索不受影响；
+ * 重建期间通过{@link #write}写入的商品会被记录，切换别名后重新同步到新索引，避免导入后的变更丢失
+ * Created by macro on 2026/10/19.
+ */
+@Component
+@ConditionalOnProperty(prefix = "search", name = "engine", havingValue = "es", matchIfMissing = true)
+public class EsProductReindexer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EsProductReindexer.class);
+    @Autowired
+    private ElasticsearchRestTemplate elasticsearchRestTemplate;
+    @Autowired
+    private EsProductBulkImporter productBulkImporter;
+    @Value("${esReindex.replicas:0}")
+    private Integer REPLICAS;
+    @Value("${esReindex.refreshInterval:1s}")
+    private String REFRESH_INTERVAL;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    //写入索引时持有读锁，开始重建及切换别名时持有写锁，保证每次写入要么在导入前完成，要么被记录
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean recording;
+
+    /**
+     * 写入商品索引，重建期间记录写入的商品id
+     *
+     * @param productIds 写入的商品id
+     * @param action     写入操作
+     */
+    public <T> T write(Collection<Long> productIds, Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            if (recording) {
+                changedIds.addAll(productIds);
+            }
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 重建商品索引并切换别名
+     *
+     * @param replay 切换别名后按商品id从数据库重新同步到索引
+     */
+    public EsProductImportResult reindex(Consumer<List<Long>> replay) {
+        if (!running.compareAndSet(false, true)) {
+            Asserts.fail("正在重建商品索引，请稍后再试");
+        }
+        setRecording(true);
+        String newIndex = null;
+        boolean switched = false;
+        try {
+            String alias = elasticsearchRestTemplate.getIndexCoordinatesFor(EsProduct.class).getIndexName();
+            newIndex = alias + "_" + DateUtil.format(new Date(), "yyyyMMddHHmmss");
+            createIndex(newIndex);
+            EsProductImportResult result = productBulkImporter.importAll(IndexCoordinates.of(newIndex));
+            //恢复刷新间隔及副本数后再校验文档数量
+            String index = newIndex;
+            elasticsearchRestTemplate.execute(client -> client.indices().putSettings(new UpdateSettingsRequest(index).settings(Settings.builder()
+                    .put("index.refresh_interval", REFRESH_INTERVAL)
+                    .put("index.number_of_replicas", REPLICAS)), RequestOptions.DEFAULT));
+            elasticsearchRestTemplate.execute(client -> client.indices().refresh(new RefreshRequest(index), RequestOptions.DEFAULT));
+            long count = elasticsearchRestTemplate.execute(client -> client.count(new CountRequest(index), RequestOptions.DEFAULT).getCount());
+            if (result.getFailed() > 0 || count != result.getTotal()) {
+                LOGGER.warn("商品索引校验失败，索引：{}，读取：{}，失败：{}，索引文档数：{}", newIndex, result.getTotal(), result.getFailed(), count);
+                Asserts.fail("商品索引校验失败，未切换索引");
+            }
+            Set<String> oldIndices;
+            lock.writeLock().lock();
+            try {
+                oldIndices = switchAlias(alias, newIndex);
+                switched = true;
+                recording = false;
+                replayChanges(replay);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!oldIndices.isEmpty()) {
+                deleteIndex(oldIndices.toArray(new String[0]));
+            }
+            result.setIndexName(newIndex);
+            return result;
+        } finally {
+            //未完成切换时删除新建的索引，别名仍指向原索引
+            if (newIndex != null && !switched) {
+                try {
+                    deleteIndex(newIndex);
+                } catch (Exception e) {
+                    LOGGER.warn("删除未完成的商品索引{}失败", newIndex, e);
+                }
+            }
+            setRecording(false);
+            running.set(false);
+        }
+    }
+
+    private void setRecording(boolean value) {
+        lock.writeLock().lock();
+        try {
+            recording = value;
+            changedIds.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 别名已指向新索引，重新同步重建期间变更的商品
+     */
+    private void replayChanges(Consumer<List<Long>> replay) {
+        if (changedIds.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>(changedIds);
+        try {
+            replay.accept(productIds);
+            LOGGER.info("已重新同步重建期间变更的商品，数量：{}", productIds.size());
+        } catch (Exception e) {
+            LOGGER.error("重新同步重建期间变更的商品失败，商品id：{}", productIds, e);
+        }
+    }
+
+    /**
+     * 创建关闭刷新且无副本的新索引，加快批量写入
+     */
+    private void createIndex(String index) {
+        Settings settings = Settings.builder()
+                .put("index.number_of_shards", 1)
+                .put("index.number_of_replicas", 0)
+                .put("index.refresh_interval", "-1")
+                .build();
+        CreateIndexRequest request = new CreateIndexRequest(index)
+                .settings(settings)
+                .mapping(elasticsearchRestTemplate.indexOps(EsProduct.class).createMapping());
+        elasticsearchRestTemplate.execute(client -> client.indices().create(request, RequestOptions.DEFAULT));
+    }
+
+    /**
+     * 在同一个请求中将别名指向新索引并移除旧索引，旧版本直接使用别名作为索引名时一并删除
+     *
+     * @return 切换前别名指向的索引
+     */
+    private Set<String> switchAlias(String alias, String newIndex) {
+        Set<String> oldIndices = new HashSet<>(elasticsearchRestTemplate.execute(client ->
+                client.indices().getAlias(new GetAliasesRequest(alias), RequestOptions.DEFAULT).getAliases().keySet()));
+        boolean concreteIndex = oldIndices.isEmpty() && elasticsearchRestTemplate.execute(client ->
+                client.indices().exists(new GetIndexRequest(alias), RequestOptions.DEFAULT));
+        IndicesAliasesRequest request = new IndicesAliasesRequest();
+        request.addAliasAction(AliasActions.add().index(newIndex).alias(alias));
+        for (String oldIndex : oldIndices) {
+            request.addAliasAction(AliasActions.remove().index(oldIndex).alias(alias));
+        }
+        if (concreteIndex) {
+            request.addAliasAction(AliasActions.removeIndex().index(alias));
+        }
+        elasticsearchRestTemplate.execute(client -> client.indices().updateAliases(request, RequestOptions.DEFAULT));
+        LOGGER.info("商品索引别名{}已切换到{}", alias, newIndex);
+        return oldIndices;
+    }
+
+    private void deleteIndex(String... indices) {
+        elasticsearchRestTemplate.execute(client -> client.indices().delete(new DeleteIndexRequest(indices), RequestOptions.DEFAULT));
+    }
+}
@@ -0,0 +1,47 @@
+package com.macro.mall.search.component;
+
+import cn.hutool.core.util.StrUtil;
+import com.macro.mall.search.domain.EsProduct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.event.BeforeConvertCallback;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 商品写入ES前根据名称、关键词及品牌名称生成自动补全内容，按销量设置权重
+ * Created by macro on 2026/10/19.
+ */
+@Component
+@ConditionalOnProperty(prefix = "search", name = "engine", havingValue = "es", matchIfMissing = true)
+public class EsProductSuggestCallback implements BeforeConvertCallback<EsProduct> {
+
+    @Override
+    public EsProduct onBeforeConvert(EsProduct esProduct, IndexCoordinates index) {
+        Set<String> inputSet = new LinkedHashSet<>();
+        addInput(inputSet, esProduct.getName());
+        addInput(inputSet, esProduct.getBrandName());
+        if (StrUtil.isNotBlank(esProduct.getKeywords())) {
+            for (String keyword : esProduct.getKeywords().split("[,，;；\\s]+")) {
+                addInput(inputSet, keyword);
+            }
+        }
+        if (inputSet.isEmpty()) {
+            esProduct.setSuggest(null);
+            return esProduct;
+        }
+        Completion suggest = new Completion(inputSet.toArray(new String[0]));
+        suggest.setWeight(esProduct.getSale() == null ? 0 : Math.max(esProduct.getSale(), 0));
+        esProduct.setSuggest(suggest);
+        return esProduct;
+    }
+
+    private void addInput(Set<String> inputSet, String input) {
+        if (StrUtil.isNotBlank(input)) {
+            inputSet.add(input.trim());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.macro.mall.search.component;
+
+import com.macro.mall.search.service.EsProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 根据商品变更记录增量同步搜索索引的定时器
+ * Created by macro on 2026/10/19.
+ */
+@Component
+public class EsProductSyncTask {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EsProductSyncTask.class);
+    @Autowired
+    private EsProductService esProductService;
+    @Value("${esSync.batchSize:1000}")
+    private Integer BATCH_SIZE;
+
+    /**
+     * 每次处理完上一轮后间隔指定时间再扫描，一轮中持续处理直到变更记录不足一批
+     */
+    @Scheduled(fixedDelayString = "${esSync.interval:5000}")
+    private void syncChangeLog() {
+        try {
+            int count;
+            int total = 0;
+            do {
+                count = esProductService.syncChangeLog(BATCH_SIZE);
+                total += count;
+            } while (count >= BATCH_SIZE);
+            if (total > 0) {
+                LOGGER.info("根据商品变更记录同步搜索索引，处理变更记录数量：{}", total);
+            }
+        } catch (Exception e) {
+            LOGGER.error("根据商品变更记录同步搜索索引失败", e);
+        }
+    }
+}
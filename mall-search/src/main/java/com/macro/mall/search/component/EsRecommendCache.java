@@ -0,0 +1,71 @@
+package com.macro.mall.search.component;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 相关商品推荐结果本地缓存，按商品id存储各分页结果，商品重新索引时只清除该商品的缓存
+ * 缓存从写入时开始计算超期时间，访问不会延长；每个商品最多缓存固定数量的分页结果
+ * Created by macro on 2026/10/19.
+ */
+@Component
+@ConditionalOnProperty(prefix = "search", name = "engine", havingValue = "es", matchIfMissing = true)
+public class EsRecommendCache {
+    @Value("${esRecommend.capacity:10000}")
+    private Integer CAPACITY;
+    @Value("${esRecommend.expire:600}")
+    private Long EXPIRE;
+    @Value("${esRecommend.maxPageCount:5}")
+    private Integer MAX_PAGE_COUNT;
+    private Cache<Long, Map<String, Object>> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(CAPACITY, EXPIRE * 1000);
+    }
+
+    /**
+     * 获取缓存的推荐结果，未命中时调用loader查询并缓存
+     *
+     * @param pageKey 分页参数
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long id, String pageKey, Supplier<T> loader) {
+        Map<String, Object> pageMap = cache.get(id, false, ConcurrentHashMap::new);
+        Object value = pageMap.get(pageKey);
+        if (value != null) {
+            return (T) value;
+        }
+        T result = loader.get();
+        //分页参数由客户端传入，超出数量的分页结果不再缓存
+        if (result != null && pageMap.size() < MAX_PAGE_COUNT) {
+            pageMap.put(pageKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * 清除指定商品的推荐结果
+     */
+    public void invalidate(Collection<Long> ids) {
+        for (Long id : ids) {
+            cache.remove(id);
+        }
+    }
+
+    /**
+     * 清除所有推荐结果
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,100 @@
+package com.macro.mall.search.component;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 搜索结果本地缓存
+ * 缓存键带有索引版本号，索引内容变更时递增版本号使旧结果失效；缓存从写入时开始计算超期时间，访问不会延长；
+ * 相同查询同时未命中时只发送一次ES请求
+ * Created by macro on 2026/10/19.
+ */
+@Component
+@ConditionalOnProperty(prefix = "search", name = "engine", havingValue = "es", matchIfMissing = true)
+public class EsSearchCache {
+    @Value("${esCache.capacity:1000}")
+    private Integer CAPACITY;
+    @Value("${esCache.expire:30}")
+    private Long EXPIRE;
+    private final AtomicLong indexVersion = new AtomicLong();
+    private final ConcurrentMap<String, CompletableFuture<Object>> loadingMap = new ConcurrentHashMap<>();
+    private Cache<String, Object> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(CAPACITY, EXPIRE * 1000);
+    }
+
+    /**
+     * 获取缓存的查询结果，未命中时调用loader查询并缓存
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        String versionKey = indexVersion.get() + ":" + key;
+        Object value = cache.get(versionKey, false);
+        if (value != null) {
+            return (T) value;
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> loading = loadingMap.putIfAbsent(versionKey, future);
+        if (loading != null) {
+            //等待正在进行的相同查询
+            try {
+                return (T) loading.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+        try {
+            T result = loader.get();
+            if (result != null) {
+                cache.put(versionKey, result);
+            }
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            //任何异常都需结束等待中的相同查询
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingMap.remove(versionKey, future);
+        }
+    }
+
+    /**
+     * 重新查询并覆盖缓存，用于预先计算热门查询
+     */
+    public <T> T refresh(String key, Supplier<T> loader) {
+        String versionKey = indexVersion.get() + ":" + key;
+        T result = loader.get();
+        if (result != null) {
+            cache.put(versionKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * 索引内容变更后使所有缓存失效
+     */
+    public void invalidate() {
+        indexVersion.incrementAndGet();
+        cache.clear();
+    }
+}
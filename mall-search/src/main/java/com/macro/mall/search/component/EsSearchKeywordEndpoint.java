@@ -0,0 +1,40 @@
+package com.macro.mall.search.component;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 通过actuator查看无结果及最慢的搜索关键词
+ * 默认不通过HTTP暴露，避免未授权访问及清空统计，可通过JMX访问(需开启spring.jmx.enabled)
+ * Created by macro on 2026/10/19.
+ */
+@Component
+@ConditionalOnProperty(prefix = "search", name = "engine", havingValue = "es", matchIfMissing = true)
+@Endpoint(id = "searchkeywords")
+public class EsSearchKeywordEndpoint {
+    @Autowired
+    private EsSearchMetrics searchMetrics;
+    @Value("${esMetrics.topSize:20}")
+    private Integer TOP_SIZE;
+
+    @ReadOperation
+    public Map<String, Map<String, Long>> keywords() {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        result.put("zeroResult", searchMetrics.getZeroResultKeywords(TOP_SIZE));
+        result.put("slowest", searchMetrics.getSlowestKeywords(TOP_SIZE));
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        searchMetrics.reset();
+    }
+}
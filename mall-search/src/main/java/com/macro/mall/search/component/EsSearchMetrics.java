@@ -0,0 +1,184 @@
+package com.macro.mall.search.component;
+
+import cn.hutool.core.util.StrUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 搜索监控统计：记录查询耗时及命中数量，抽样打印慢查询日志，统计无结果及最慢的关键词
+ * Created by macro on 2026/10/19.
+ */
+@Component
+@ConditionalOnProperty(prefix = "search", name = "engine", havingValue = "es", matchIfMissing = true)
+public class EsSearchMetrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EsSearchMetrics.class);
+    /**
+     * 排序方式对应的监控标签，其他值统一为other，避免标签数量无限增长
+     */
+    private static final String[] SORT_TAGS = {"relevance", "new", "sale", "price_asc", "price_desc"};
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Value("${esMetrics.slowThreshold:500}")
+    private Long SLOW_THRESHOLD;
+    @Value("${esMetrics.slowLogSampleRate:0.1}")
+    private Double SLOW_LOG_SAMPLE_RATE;
+    @Value("${esMetrics.maxKeywords:1000}")
+    private Integer MAX_KEYWORDS;
+    //访问时需对自身加锁
+    private final Map<String, Long> zeroResultMap = new HashMap<>();
+    private final Map<String, Long> slowestMap = new ConcurrentHashMap<>();
+
+    /**
+     * 执行查询并记录监控数据
+     *
+     * @param operation         查询类型
+     * @param keyword           搜索关键词，为空时不统计关键词
+     * @param sort              排序方式，没有时为空
+     * @param brandId           品牌过滤条件
+     * @param productCategoryId 分类过滤条件
+     * @param hitCounter        获取查询结果的命中数量
+     */
+    public <T> T record(String operation, String keyword, Integer sort, Long brandId, Long productCategoryId,
+                        Supplier<T> query, ToLongFunction<T> hitCounter) {
+        Tags tags = Tags.of("operation", operation,
+                "sort", getSortTag(sort),
+                "filter", getFilterTag(brandId, productCategoryId),
+                "keyword", StrUtil.isEmpty(keyword) ? "empty" : "present");
+        long start = System.nanoTime();
+        T result = query.get();
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("es.search").tags(tags).register(meterRegistry).record(elapsed, TimeUnit.NANOSECONDS);
+        long hits = hitCounter.applyAsLong(result);
+        DistributionSummary.builder("es.search.hits").tags(tags).register(meterRegistry).record(hits);
+        String normalizedKeyword = StrUtil.trimToEmpty(keyword).toLowerCase();
+        if (hits == 0) {
+            Counter.builder("es.search.zero.result").tags(tags).register(meterRegistry).increment();
+            recordZeroResult(normalizedKeyword);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+        if (elapsedMillis >= SLOW_THRESHOLD) {
+            recordSlowest(normalizedKeyword, elapsedMillis);
+            //慢查询较多时只抽样打印，避免日志量过大
+            if (ThreadLocalRandom.current().nextDouble() < SLOW_LOG_SAMPLE_RATE) {
+                LOGGER.warn("慢查询，类型：{}，关键词：{}，品牌：{}，分类：{}，排序：{}，命中：{}，耗时：{}ms",
+                        operation, keyword, brandId, productCategoryId, sort, hits, elapsedMillis);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取无结果次数最多的关键词
+     */
+    public Map<String, Long> getZeroResultKeywords(int size) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        synchronized (zeroResultMap) {
+            zeroResultMap.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(size)
+                    .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * 获取最大耗时最长的关键词，单位毫秒
+     */
+    public Map<String, Long> getSlowestKeywords(int size) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        slowestMap.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(size)
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    /**
+     * 清空关键词统计
+     */
+    public void reset() {
+        synchronized (zeroResultMap) {
+            zeroResultMap.clear();
+        }
+        slowestMap.clear();
+    }
+
+    private String getSortTag(Integer sort) {
+        if (sort == null) {
+            return "none";
+        }
+        return sort >= 0 && sort < SORT_TAGS.length ? SORT_TAGS[sort] : "other";
+    }
+
+    private String getFilterTag(Long brandId, Long productCategoryId) {
+        if (brandId != null && productCategoryId != null) {
+            return "brand_category";
+        } else if (brandId != null) {
+            return "brand";
+        } else if (productCategoryId != null) {
+            return "category";
+        }
+        return "none";
+    }
+
+    /**
+     * 使用Space-Saving算法统计：关键词数量达到上限时替换次数最少的关键词，新关键词在其次数上累加，
+     * 次数多于上限分之一总次数的关键词不会被遗漏
+     */
+    private void recordZeroResult(String keyword) {
+        if (StrUtil.isEmpty(keyword)) {
+            return;
+        }
+        synchronized (zeroResultMap) {
+            Long count = zeroResultMap.get(keyword);
+            if (count == null && zeroResultMap.size() >= MAX_KEYWORDS) {
+                Map.Entry<String, Long> least = zeroResultMap.entrySet().stream()
+                        .min(Map.Entry.comparingByValue())
+                        .orElse(null);
+                if (least != null) {
+                    zeroResultMap.remove(least.getKey());
+                    count = least.getValue();
+                }
+            }
+            zeroResultMap.put(keyword, count == null ? 1 : count + 1);
+        }
+    }
+
+    /**
+     * 关键词数量达到上限时替换耗时最短的关键词
+     */
+    private void recordSlowest(String keyword, long elapsed) {
+        if (StrUtil.isEmpty(keyword)) {
+            return;
+        }
+        if (!slowestMap.containsKey(keyword) && slowestMap.size() >= MAX_KEYWORDS) {
+            Map.Entry<String, Long> fastest = slowestMap.entrySet().stream()
+                    .min(Comparator.comparingLong(Map.Entry::getValue))
+                    .orElse(null);
+            if (fastest == null || fastest.getValue() >= elapsed) {
+                return;
+            }
+            slowestMap.remove(fastest.getKey(), fastest.getValue());
+        }
+        slowestMap.merge(keyword, elapsed, Math::max);
+    }
+}
@@ -0,0 +1,435 @@
+package com.macro.mall.search.component;
+
+import cn.hutool.core.util.StrUtil;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.macro.mall.search.domain.EsProduct;
+import com.macro.mall.search.domain.EsProductAttributeValue;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于本地磁盘Lucene索引的商品存储，使用MMapDirectory读取索引文件
+ * 查询只能看到已提交的数据，写入操作串行执行，全量重建失败时回滚到上次提交的索引
+ * Created by macro on 2026/10/19.
+ */
+public class LuceneProductIndex implements Closeable {
+    /**
+     * 商品属性聚合值中属性ID、名称及值的分隔符
+     */
+    public static final String ATTR_SEPARATOR = "\u001f";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final String path;
+    private final Analyzer analyzer = new CJKAnalyzer();
+    private final Directory directory;
+    private final SearcherManager searcherManager;
+    private volatile IndexWriter indexWriter;
+
+    public LuceneProductIndex(String path) throws IOException {
+        this(path, new MMapDirectory(Paths.get(path)));
+    }
+
+    /**
+     * @param path      索引名称，用于导入结果及日志
+     * @param directory 索引存储目录，如测试时使用内存目录
+     */
+    public LuceneProductIndex(String path, Directory directory) throws IOException {
+        this.path = path;
+        this.directory = directory;
+        this.indexWriter = openWriter();
+        //首次使用时提交一次，保证索引目录可以被读取
+        indexWriter.commit();
+        this.searcherManager = new SearcherManager(directory, null);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    /**
+     * 新增或更新商品
+     */
+    public synchronized void update(List<EsProduct> productList) {
+        try {
+            for (EsProduct product : productList) {
+                indexWriter.updateDocument(new Term("id", String.valueOf(product.getId())), toDocument(product));
+            }
+            commit();
+        } catch (IOException e) {
+            throw new IllegalStateException("更新Lucene商品索引失败", e);
+        }
+    }
+
+    /**
+     * 根据id删除商品
+     */
+    public synchronized void delete(List<Long> ids) {
+        try {
+            for (Long id : ids) {
+                indexWriter.deleteDocuments(new Term("id", String.valueOf(id)));
+            }
+            commit();
+        } catch (IOException e) {
+            throw new IllegalStateException("删除Lucene商品索引失败", e);
+        }
+    }
+
+    /**
+     * 使用全部商品替换索引内容，提交前查询仍使用原索引
+     *
+     * @return 写入的商品数量
+     */
+    public synchronized long replaceAll(Iterable<EsProduct> products) {
+        long count = 0;
+        try {
+            indexWriter.deleteAll();
+            for (EsProduct product : products) {
+                indexWriter.addDocument(toDocument(product));
+                count++;
+            }
+            commit();
+            return count;
+        } catch (Exception e) {
+            rollback();
+            throw new IllegalStateException("重建Lucene商品索引失败", e);
+        }
+    }
+
+    /**
+     * 根据id获取商品
+     */
+    public EsProduct get(Long id) {
+        SearchResult result = search(new TermQuery(new Term("id", String.valueOf(id))), Sort.INDEXORDER, null, 1);
+        return result.getProductList().isEmpty() ? null : result.getProductList().get(0);
+    }
+
+    /**
+     * 按排序查询商品
+     *
+     * @param after   从该排序值之后开始查询，为空时从第一条开始
+     * @param numHits 最多返回的商品数量
+     */
+    public SearchResult search(Query query, Sort sort, FieldDoc after, int numHits) {
+        IndexSearcher searcher = acquire();
+        try {
+            TopFieldCollector collector = TopFieldCollector.create(sort, numHits, after, Integer.MAX_VALUE);
+            searcher.search(query, collector);
+            TopDocs topDocs = collector.topDocs();
+            SearchResult result = new SearchResult();
+            result.setTotal(topDocs.totalHits.value);
+            List<EsProduct> productList = new ArrayList<>(topDocs.scoreDocs.length);
+            List<FieldDoc> fieldDocList = new ArrayList<>(topDocs.scoreDocs.length);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                BytesRef source = searcher.doc(scoreDoc.doc).getBinaryValue("source");
+                productList.add(OBJECT_MAPPER.readValue(source.bytes, source.offset, source.length, EsProduct.class));
+                fieldDocList.add((FieldDoc) scoreDoc);
+            }
+            result.setProductList(productList);
+            result.setFieldDocList(fieldDocList);
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException("查询Lucene商品索引失败", e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * 统计匹配商品中各字段值出现的商品数量
+     *
+     * @param fields 可选brandName、productCategoryName及attr，attr的值为属性ID、名称及值以{@link #ATTR_SEPARATOR}拼接
+     */
+    public Map<String, Map<String, Integer>> facet(Query query, String... fields) {
+        IndexSearcher searcher = acquire();
+        try {
+            List<SegmentCounts> segmentCountsList = new ArrayList<>();
+            searcher.search(query, new SimpleCollector() {
+                private SortedSetDocValues[] docValues;
+                private int[][] counts;
+
+                @Override
+                protected void doSetNextReader(LeafReaderContext context) throws IOException {
+                    docValues = new SortedSetDocValues[fields.length];
+                    counts = new int[fields.length][];
+                    for (int i = 0; i < fields.length; i++) {
+                        docValues[i] = DocValues.getSortedSet(context.reader(), fields[i]);
+                        counts[i] = new int[(int) docValues[i].getValueCount()];
+                    }
+                    segmentCountsList.add(new SegmentCounts(docValues, counts));
+                }
+
+                @Override
+                public void collect(int doc) throws IOException {
+                    for (int i = 0; i < docValues.length; i++) {
+                        if (docValues[i].advanceExact(doc)) {
+                            for (long ord = docValues[i].nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = docValues[i].nextOrd()) {
+                                counts[i][(int) ord]++;
+                            }
+                        }
+                    }
+                }
+
+                @Override
+                public ScoreMode scoreMode() {
+                    return ScoreMode.COMPLETE_NO_SCORES;
+                }
+            });
+            //按分段统计序号，最后统一转换为字段值
+            Map<String, Map<String, Integer>> result = new HashMap<>();
+            for (String field : fields) {
+                result.put(field, new HashMap<>());
+            }
+            for (SegmentCounts segmentCounts : segmentCountsList) {
+                for (int i = 0; i < fields.length; i++) {
+                    Map<String, Integer> fieldCounts = result.get(fields[i]);
+                    int[] counts = segmentCounts.counts[i];
+                    for (int ord = 0; ord < counts.length; ord++) {
+                        if (counts[ord] > 0) {
+                            fieldCounts.merge(segmentCounts.docValues[i].lookupOrd(ord).utf8ToString(), counts[ord], Integer::sum);
+                        }
+                    }
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException("统计Lucene商品索引失败", e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * 根据前缀获取商品名称、关键词及品牌名称的补全建议，按销量排序
+     */
+    public List<String> suggest(String prefix, int size) {
+        Set<String> result = new LinkedHashSet<>();
+        IndexSearcher searcher = acquire();
+        try {
+            //同一商品可能有多个输入匹配，多查一些商品用于去重
+            TopDocs topDocs = searcher.search(new PrefixQuery(new Term("suggest", prefix)), size * 5,
+                    new Sort(new SortField("sale", SortField.Type.LONG, true)));
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                for (String input : searcher.doc(scoreDoc.doc).getValues("suggestInput")) {
+                    if (input.toLowerCase().startsWith(prefix)) {
+                        result.add(input);
+                        if (result.size() >= size) {
+                            return new ArrayList<>(result);
+                        }
+                    }
+                }
+            }
+            return new ArrayList<>(result);
+        } catch (IOException e) {
+            throw new IllegalStateException("查询Lucene商品索引失败", e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    private Document toDocument(EsProduct product) throws IOException {
+        Document document = new Document();
+        document.add(new StringField("id", String.valueOf(product.getId()), Field.Store.NO));
+        document.add(new NumericDocValuesField("idSort", product.getId()));
+        if (product.getBrandId() != null) {
+            document.add(new LongPoint("brandId", product.getBrandId()));
+        }
+        if (product.getProductCategoryId() != null) {
+            document.add(new LongPoint("productCategoryId", product.getProductCategoryId()));
+        }
+        addText(document, "name", product.getName());
+        addText(document, "subTitle", product.getSubTitle());
+        addText(document, "keywords", product.getKeywords());
+        if (product.getSale() != null) {
+            document.add(new NumericDocValuesField("sale", product.getSale()));
+        }
+        if (product.getPrice() != null) {
+            document.add(new DoubleDocValuesField("price", product.getPrice().doubleValue()));
+        }
+        addKeyword(document, "brandName", product.getBrandName());
+        addKeyword(document, "productCategoryName", product.getProductCategoryName());
+        if (product.getAttrValueList() != null) {
+            for (EsProductAttributeValue attrValue : product.getAttrValueList()) {
+                //与ES一致，只统计type=1的属性
+                if (attrValue.getType() != null && attrValue.getType() == 1 && attrValue.getProductAttributeId() != null
+                        && StrUtil.isNotEmpty(attrValue.getValue())) {
+                    addKeyword(document, "attr", attrValue.getProductAttributeId() + ATTR_SEPARATOR
+                            + StrUtil.nullToEmpty(attrValue.getName()) + ATTR_SEPARATOR + attrValue.getValue());
+                }
+            }
+        }
+        //补全建议的输入
+        Set<String> inputSet = new LinkedHashSet<>();
+        addInput(inputSet, product.getName());
+        addInput(inputSet, product.getBrandName());
+        if (StrUtil.isNotBlank(product.getKeywords())) {
+            for (String keyword : product.getKeywords().split("[,，;；\\s]+")) {
+                addInput(inputSet, keyword);
+            }
+        }
+        for (String input : inputSet) {
+            document.add(new StringField("suggest", input.toLowerCase(), Field.Store.NO));
+            document.add(new StoredField("suggestInput", input));
+        }
+        document.add(new StoredField("source", OBJECT_MAPPER.writeValueAsBytes(product)));
+        return document;
+    }
+
+    private void addText(Document document, String field, String value) {
+        if (StrUtil.isNotEmpty(value)) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    private void addKeyword(Document document, String field, String value) {
+        if (StrUtil.isNotEmpty(value)) {
+            document.add(new SortedSetDocValuesField(field, new BytesRef(value)));
+        }
+    }
+
+    private void addInput(Set<String> inputSet, String input) {
+        if (StrUtil.isNotBlank(input)) {
+            inputSet.add(input.trim());
+        }
+    }
+
+    private void commit() throws IOException {
+        indexWriter.commit();
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    /**
+     * 回滚未提交的修改，回滚会关闭IndexWriter，需要重新打开
+     */
+    private void rollback() {
+        try {
+            indexWriter.rollback();
+            indexWriter = openWriter();
+        } catch (IOException e) {
+            throw new IllegalStateException("回滚Lucene商品索引失败", e);
+        }
+    }
+
+    private IndexWriter openWriter() throws IOException {
+        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        return new IndexWriter(directory, config);
+    }
+
+    private IndexSearcher acquire() {
+        try {
+            return searcherManager.acquire();
+        } catch (IOException e) {
+            throw new IllegalStateException("打开Lucene商品索引失败", e);
+        }
+    }
+
+    private void release(IndexSearcher searcher) {
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            throw new IllegalStateException("关闭Lucene商品索引失败", e);
+        }
+    }
+
+    private static class SegmentCounts {
+        private final SortedSetDocValues[] docValues;
+        private final int[][] counts;
+
+        SegmentCounts(SortedSetDocValues[] docValues, int[][] counts) {
+            this.docValues = docValues;
+            this.counts = counts;
+        }
+    }
+
+    /**
+     * 查询结果
+     */
+    public static class SearchResult {
+        /**
+         * 匹配的商品总数
+         */
+        private long total;
+        private List<EsProduct> productList;
+        /**
+         * 每个商品的排序值，用于游标分页
+         */
+        private List<FieldDoc> fieldDocList;
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+
+        public List<EsProduct> getProductList() {
+            return productList;
+        }
+
+        public void setProductList(List<EsProduct> productList) {
+            this.productList = productList;
+        }
+
+        public List<FieldDoc> getFieldDocList() {
+            return fieldDocList;
+        }
+
+        public void setFieldDocList(List<FieldDoc> fieldDocList) {
+            this.fieldDocList = fieldDocList;
+        }
+    }
+}
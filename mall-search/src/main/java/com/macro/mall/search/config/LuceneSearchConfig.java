@@ -0,0 +1,23 @@
+package com.macro.mall.search.config;
+
+import com.macro.mall.search.component.LuceneProductIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * 嵌入式Lucene搜索相关配置，search.engine=lucene时不依赖ES集群
+ * Created by macro on 2026/10/19.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "search", name = "engine", havingValue = "lucene")
+public class LuceneSearchConfig {
+
+    @Bean(destroyMethod = "close")
+    public LuceneProductIndex luceneProductIndex(@Value("${lucene.path}") String path) throws IOException {
+        return new LuceneProductIndex(path);
+    }
+}
@@ -0,0 +1,13 @@
+package com.macro.mall.search.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务相关配置
+ * Created by macro on 2026/10/19.
+ */
+@Configuration
+@EnableScheduling
+public class SpringTaskConfig {
+}
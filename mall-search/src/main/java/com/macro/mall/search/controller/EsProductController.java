@@ -1,8 +1,10 @@
 package com.macro.mall.search.controller;
 
+import com.macro.mall.common.api.CommonCursorPage;
 import com.macro.mall.common.api.CommonPage;
 import com.macro.mall.common.api.CommonResult;
 import com.macro.mall.search.domain.EsProduct;
+import com.macro.mall.search.domain.EsProductImportResult;
 import com.macro.mall.search.domain.EsProductRelatedInfo;
 import com.macro.mall.search.service.EsProductService;
 import io.swagger.annotations.Api;
@@ -36,6 +38,22 @@ public class EsProductController {
         return CommonResult.success(count);
     }
 
+    @ApiOperation(value = "流式批量导入所有数据库中商品到ES并返回导入统计")
+    @RequestMapping(value = "/bulkImportAll", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult<EsProductImportResult> bulkImportAll() {
+        EsProductImportResult result = esProductService.bulkImportAll();
+        return CommonResult.success(result);
+    }
+
+    @ApiOperation(value = "重建商品索引，完成后切换到新索引")
+    @RequestMapping(value = "/reindex", method = RequestMethod.POST)
+    @ResponseBody
+    public CommonResult<EsProductImportResult> reindex() {
+        EsProductImportResult result = esProductService.reindex();
+        return CommonResult.success(result);
+    }
+
     @ApiOperation(value = "根据id删除商品")
     @RequestMapping(value = "/delete/{id}", method = RequestMethod.GET)
     @ResponseBody
@@ -89,6 +107,30 @@ public class EsProductController {
         return CommonResult.success(CommonPage.restPage(esProductPage));
     }
 
+    @ApiOperation(value = "综合搜索、筛选、排序，使用游标分页")
+    @ApiImplicitParam(name = "sort", value = "排序字段:0->按相关度；1->按新品；2->按销量；3->价格从低到高；4->价格从高到低",
+            defaultValue = "0", allowableValues = "0,1,2,3,4", paramType = "query", dataType = "integer")
+    @RequestMapping(value = "/searchCursor", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<CommonCursorPage<EsProduct>> searchCursor(@RequestParam(required = false) String keyword,
+                                                                  @RequestParam(required = false) Long brandId,
+                                                                  @RequestParam(required = false) Long productCategoryId,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false, defaultValue = "5") Integer pageSize,
+                                                                  @RequestParam(required = false, defaultValue = "0") Integer sort) {
+        CommonCursorPage<EsProduct> esProductPage = esProductService.searchCursor(keyword, brandId, productCategoryId, cursor, pageSize, sort);
+        return CommonResult.success(esProductPage);
+    }
+
+    @ApiOperation(value = "根据输入前缀获取搜索自动补全建议")
+    @RequestMapping(value = "/suggest", method = RequestMethod.GET)
+    @ResponseBody
+    public CommonResult<List<String>> suggest(@RequestParam String keyword,
+                                              @RequestParam(required = false, defaultValue = "10") Integer size) {
+        List<String> suggestList = esProductService.suggest(keyword, size);
+        return CommonResult.success(suggestList);
+    }
+
     @ApiOperation(value = "根据商品id推荐商品")
     @RequestMapping(value = "/recommend/{id}", method = RequestMethod.GET)
     @ResponseBody
@@ -1,7 +1,9 @@
 package com.macro.mall.search.dao;
 
 import com.macro.mall.search.domain.EsProduct;
+import com.macro.mall.search.domain.EsProductChangeLog;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
 
@@ -14,4 +16,24 @@ public interface EsProductDao {
      * 获取指定ID的搜索商品
      */
     List<EsProduct> getAllEsProductList(@Param("id") Long id);
+
+    /**
+     * 流式获取所有搜索商品，需在打开的SqlSession中遍历
+     */
+    Cursor<EsProduct> getAllEsProductCursor();
+
+    /**
+     * 获取指定ID的已上架搜索商品
+     */
+    List<EsProduct> getEsProductListByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 按记录顺序获取商品变更记录
+     */
+    List<EsProductChangeLog> getChangeLogList(@Param("limit") Integer limit);
+
+    /**
+     * 删除已处理的商品变更记录
+     */
+    int deleteChangeLog(@Param("ids") List<Long> ids);
 }
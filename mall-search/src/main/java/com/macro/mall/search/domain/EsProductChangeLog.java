@@ -0,0 +1,15 @@
+package com.macro.mall.search.domain;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 商品变更记录，由后台管理系统在修改商品时写入
+ * Created by macro on 2026/10/19.
+ */
+@Data
+@EqualsAndHashCode
+public class EsProductChangeLog {
+    private Long id;
+    private Long productId;
+}
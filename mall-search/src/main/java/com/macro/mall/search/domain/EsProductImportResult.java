@@ -0,0 +1,26 @@
+package com.macro.mall.search.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 批量导入商品到ES的结果统计
+ * Created by macro on 2026/10/19.
+ */
+@Data
+@EqualsAndHashCode
+public class EsProductImportResult {
+    @ApiModelProperty("从数据库读取的商品数量")
+    private Long total;
+    @ApiModelProperty("导入成功数量")
+    private Long success;
+    @ApiModelProperty("重试后仍导入失败的数量")
+    private Long failed;
+    @ApiModelProperty("导入耗时(毫秒)")
+    private Long elapsed;
+    @ApiModelProperty("导入速度(条/秒)")
+    private Long throughput;
+    @ApiModelProperty("重建索引时新建的索引名称")
+    private String indexName;
+}
@@ -1,6 +1,8 @@
 package com.macro.mall.search.service;
 
+import com.macro.mall.common.api.CommonCursorPage;
 import com.macro.mall.search.domain.EsProduct;
+import com.macro.mall.search.domain.EsProductImportResult;
 import com.macro.mall.search.domain.EsProductRelatedInfo;
 import org.springframework.data.domain.Page;
 
@@ -16,6 +18,24 @@ public interface EsProductService {
      */
     int importAll();
 
+    /**
+     * 从数据库中流式批量导入所有商品到ES，返回导入统计
+     */
+    EsProductImportResult bulkImportAll();
+
+    /**
+     * 重建商品索引到新版本索引，校验通过后切换别名
+     */
+    EsProductImportResult reindex();
+
+    /**
+     * 根据商品变更记录增量更新索引，已下架或删除的商品从索引中删除
+     *
+     * @param limit 每次处理的变更记录数量
+     * @return 处理的变更记录数量
+     */
+    int syncChangeLog(Integer limit);
+
     /**
      * 根据id删除商品
      */
@@ -41,6 +61,19 @@ public interface EsProductService {
      */
     Page<EsProduct> search(String keyword, Long brandId, Long productCategoryId, Integer pageNum, Integer pageSize,Integer sort);
 
+    /**
+     * 根据关键字通过名称或副标题复合查询商品，使用search_after游标分页，翻页深度不影响查询耗时
+     *
+     * @param cursor 上一页返回的游标，查询第一页时为空
+     */
+    CommonCursorPage<EsProduct> searchCursor(String keyword, Long brandId, Long productCategoryId, String cursor, Integer pageSize, Integer sort);
+
+    /**
+     * 根据输入前缀获取商品名称、关键词及品牌名称的自动补全建议，按销量排序
+     * 数量不大于0时返回空列表，超过上限时按上限返回
+     */
+    List<String> suggest(String keyword, Integer size);
+
     /**
      * 根据商品id推荐相关商品
      */
@@ -50,4 +83,11 @@ public interface EsProductService {
      * 搜索关键字相关品牌、分类、属性
      */
     EsProductRelatedInfo searchRelatedInfo(String keyword);
+
+    /**
+     * 预先计算空关键词及热门关键词相关品牌、分类、属性并缓存
+     *
+     * @return 计算的关键词数量
+     */
+    int precomputeRelatedInfo();
 }
@@ -2,30 +2,44 @@ package com.macro.mall.search.service.impl;
 
 import cn.hutool.core.collection.ListUtil;
 import cn.hutool.core.util.StrUtil;
+import com.macro.mall.common.api.CommonCursorPage;
+import com.macro.mall.search.component.EsKeywordCounter;
+import com.macro.mall.search.component.EsProductBulkImporter;
+import com.macro.mall.search.component.EsProductReindexer;
+import com.macro.mall.search.component.EsRecommendCache;
+import com.macro.mall.search.component.EsSearchCache;
+import com.macro.mall.search.component.EsSearchMetrics;
 import com.macro.mall.search.dao.EsProductDao;
 import com.macro.mall.search.domain.EsProduct;
+import com.macro.mall.search.domain.EsProductChangeLog;
+import com.macro.mall.search.domain.EsProductImportResult;
 import com.macro.mall.search.domain.EsProductRelatedInfo;
 import com.macro.mall.search.repository.EsProductRepository;
 import com.macro.mall.search.service.EsProductService;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.common.lucene.search.function.FunctionScoreQuery;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.functionscore.FunctionScoreQueryBuilder;
 import org.elasticsearch.index.query.functionscore.ScoreFunctionBuilders;
 import org.elasticsearch.search.aggregations.AbstractAggregationBuilder;
-import org.elasticsearch.search.aggregations.Aggregation;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.Aggregations;
 import org.elasticsearch.search.aggregations.bucket.filter.ParsedFilter;
 import org.elasticsearch.search.aggregations.bucket.nested.ParsedNested;
-import org.elasticsearch.search.aggregations.bucket.terms.ParsedLongTerms;
-import org.elasticsearch.search.aggregations.bucket.terms.ParsedStringTerms;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortBuilder;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortOrder;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.elasticsearch.search.suggest.SuggestBuilder;
+import org.elasticsearch.search.suggest.SuggestBuilders;
+import org.elasticsearch.search.suggest.completion.CompletionSuggestion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -39,9 +53,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
@@ -50,30 +63,96 @@ import java.util.stream.Collectors;
  * Created by macro on 2018/6/19.
  */
 @Service
+@ConditionalOnProperty(prefix = "search", name = "engine", havingValue = "es", matchIfMissing = true)
 public class EsProductServiceImpl implements EsProductService {
-    private static final Logger LOGGER = LoggerFactory.getLogger(EsProductServiceImpl.class);
     @Autowired
     private EsProductDao productDao;
     @Autowired
     private EsProductRepository productRepository;
     @Autowired
     private ElasticsearchRestTemplate elasticsearchRestTemplate;
+    @Autowired
+    private EsProductBulkImporter productBulkImporter;
+    @Autowired
+    private EsProductReindexer productReindexer;
+    @Autowired
+    private EsSearchCache searchCache;
+    @Autowired
+    private EsKeywordCounter keywordCounter;
+    @Autowired
+    private EsRecommendCache recommendCache;
+    @Autowired
+    private EsSearchMetrics searchMetrics;
+    @Value("${esFacet.topSize:50}")
+    private Integer FACET_TOP_SIZE;
+    @Value("${esSuggest.maxSize:20}")
+    private Integer SUGGEST_MAX_SIZE;
     @Override
     public int importAll() {
-        List<EsProduct> esProductList = productDao.getAllEsProductList(null);
-        Iterable<EsProduct> esProductIterable = productRepository.saveAll(esProductList);
-        Iterator<EsProduct> iterator = esProductIterable.iterator();
-        int result = 0;
-        while (iterator.hasNext()) {
-            result++;
-            iterator.next();
-        }
+        return bulkImportAll().getSuccess().intValue();
+    }
+
+    @Override
+    public EsProductImportResult bulkImportAll() {
+        EsProductImportResult result = productBulkImporter.importAll(elasticsearchRestTemplate.getIndexCoordinatesFor(EsProduct.class));
+        searchCache.invalidate();
+        recommendCache.invalidateAll();
         return result;
     }
 
+    @Override
+    public EsProductImportResult reindex() {
+        EsProductImportResult result = productReindexer.reindex(this::refresh);
+        searchCache.invalidate();
+        recommendCache.invalidateAll();
+        return result;
+    }
+
+    @Override
+    public int syncChangeLog(Integer limit) {
+        List<EsProductChangeLog> changeLogList = productDao.getChangeLogList(limit);
+        if (CollectionUtils.isEmpty(changeLogList)) {
+            return 0;
+        }
+        //同一商品的多次变更只需更新一次
+        List<Long> productIds = changeLogList.stream().map(EsProductChangeLog::getProductId).distinct().collect(Collectors.toList());
+        productReindexer.write(productIds, () -> {
+            refresh(productIds);
+            return null;
+        });
+        productDao.deleteChangeLog(changeLogList.stream().map(EsProductChangeLog::getId).collect(Collectors.toList()));
+        searchCache.invalidate();
+        recommendCache.invalidate(productIds);
+        return changeLogList.size();
+    }
+
+    /**
+     * 按数据库中的数据更新商品索引，已不存在的商品从索引中删除
+     */
+    private void refresh(List<Long> productIds) {
+        List<EsProduct> esProductList = productDao.getEsProductListByIds(productIds);
+        if (!CollectionUtils.isEmpty(esProductList)) {
+            productRepository.saveAll(esProductList);
+        }
+        Set<Long> existIds = esProductList.stream().map(EsProduct::getId).collect(Collectors.toSet());
+        List<EsProduct> deleteList = productIds.stream().filter(id -> !existIds.contains(id)).map(id -> {
+            EsProduct esProduct = new EsProduct();
+            esProduct.setId(id);
+            return esProduct;
+        }).collect(Collectors.toList());
+        if (!deleteList.isEmpty()) {
+            productRepository.deleteAll(deleteList);
+        }
+    }
+
     @Override
     public void delete(Long id) {
-        productRepository.deleteById(id);
+        productReindexer.write(ListUtil.toList(id), () -> {
+            productRepository.deleteById(id);
+            return null;
+        });
+        searchCache.invalidate();
+        recommendCache.invalidate(ListUtil.toList(id));
     }
 
     @Override
@@ -82,7 +161,9 @@ public class EsProductServiceImpl implements EsProductService {
         List<EsProduct> esProductList = productDao.getAllEsProductList(id);
         if (esProductList.size() > 0) {
             EsProduct esProduct = esProductList.get(0);
-            result = productRepository.save(esProduct);
+            result = productReindexer.write(ListUtil.toList(id), () -> productRepository.save(esProduct));
+            searchCache.invalidate();
+            recommendCache.invalidate(ListUtil.toList(id));
         }
         return result;
     }
@@ -96,22 +177,115 @@ public class EsProductServiceImpl implements EsProductService {
                 esProduct.setId(id);
                 esProductList.add(esProduct);
             }
-            productRepository.deleteAll(esProductList);
+            productReindexer.write(ids, () -> {
+                productRepository.deleteAll(esProductList);
+                return null;
+            });
+            searchCache.invalidate();
+            recommendCache.invalidate(ids);
         }
     }
 
     @Override
     public Page<EsProduct> search(String keyword, Integer pageNum, Integer pageSize) {
         Pageable pageable = PageRequest.of(pageNum, pageSize);
-        return productRepository.findByNameOrSubTitleOrKeywords(keyword, keyword, keyword, pageable);
+        return searchMetrics.record("simpleSearch", keyword, null, null, null,
+                () -> productRepository.findByNameOrSubTitleOrKeywords(keyword, keyword, keyword, pageable), Page::getTotalElements);
     }
 
     @Override
     public Page<EsProduct> search(String keyword, Long brandId, Long productCategoryId, Integer pageNum, Integer pageSize,Integer sort) {
+        //按规范化后的查询条件缓存结果
+        String cacheKey = StrUtil.format("search:{}:{}:{}:{}:{}:{}", StrUtil.trimToEmpty(keyword).toLowerCase(),
+                brandId, productCategoryId, pageNum, pageSize, sort);
+        return searchMetrics.record("search", keyword, sort, brandId, productCategoryId,
+                () -> searchCache.get(cacheKey, () -> doSearch(keyword, brandId, productCategoryId, pageNum, pageSize, sort)),
+                Page::getTotalElements);
+    }
+
+    private Page<EsProduct> doSearch(String keyword, Long brandId, Long productCategoryId, Integer pageNum, Integer pageSize,Integer sort) {
         Pageable pageable = PageRequest.of(pageNum, pageSize);
-        NativeSearchQueryBuilder nativeSearchQueryBuilder = new NativeSearchQueryBuilder();
+        NativeSearchQueryBuilder nativeSearchQueryBuilder = getSearchQueryBuilder(keyword, brandId, productCategoryId);
         //分页
         nativeSearchQueryBuilder.withPageable(pageable);
+        //排序
+        if(sort==1){
+            //按新品从新到旧
+            nativeSearchQueryBuilder.withSorts(SortBuilders.fieldSort("id").order(SortOrder.DESC));
+        }else if(sort==2){
+            //按销量从高到低
+            nativeSearchQueryBuilder.withSorts(SortBuilders.fieldSort("sale").order(SortOrder.DESC));
+        }else if(sort==3){
+            //按价格从低到高
+            nativeSearchQueryBuilder.withSorts(SortBuilders.fieldSort("price").order(SortOrder.ASC));
+        }else if(sort==4){
+            //按价格从高到低
+            nativeSearchQueryBuilder.withSorts(SortBuilders.fieldSort("price").order(SortOrder.DESC));
+        }else{
+            //按相关度
+            nativeSearchQueryBuilder.withSorts(SortBuilders.scoreSort().order(SortOrder.DESC));
+        }
+        nativeSearchQueryBuilder.withSorts(SortBuilders.scoreSort().order(SortOrder.DESC));
+        NativeSearchQuery searchQuery = nativeSearchQueryBuilder.build();
+        SearchHits<EsProduct> searchHits = elasticsearchRestTemplate.search(searchQuery, EsProduct.class);
+        if(searchHits.getTotalHits()<=0){
+            return new PageImpl<>(ListUtil.empty(),pageable,0);
+        }
+        List<EsProduct> searchProductList = searchHits.stream().map(SearchHit::getContent).collect(Collectors.toList());
+        return new PageImpl<>(searchProductList,pageable,searchHits.getTotalHits());
+    }
+
+    @Override
+    public CommonCursorPage<EsProduct> searchCursor(String keyword, Long brandId, Long productCategoryId, String cursor, Integer pageSize, Integer sort) {
+        CommonCursorPage.checkPageSize(pageSize);
+        return searchMetrics.record("searchCursor", keyword, sort, brandId, productCategoryId,
+                () -> doSearchCursor(keyword, brandId, productCategoryId, cursor, pageSize, sort), page -> page.getList().size());
+    }
+
+    private CommonCursorPage<EsProduct> doSearchCursor(String keyword, Long brandId, Long productCategoryId, String cursor, Integer pageSize, Integer sort) {
+        NativeSearchQueryBuilder nativeSearchQueryBuilder = getSearchQueryBuilder(keyword, brandId, productCategoryId);
+        //排序，最后按id排序保证排序值唯一
+        List<SortBuilder<?>> sortList = new ArrayList<>();
+        if (sort == 2) {
+            sortList.add(SortBuilders.fieldSort("sale").order(SortOrder.DESC));
+        } else if (sort == 3) {
+            sortList.add(SortBuilders.fieldSort("price").order(SortOrder.ASC));
+        } else if (sort == 4) {
+            sortList.add(SortBuilders.fieldSort("price").order(SortOrder.DESC));
+        } else if (sort != 1) {
+            sortList.add(SortBuilders.scoreSort().order(SortOrder.DESC));
+        }
+        sortList.add(SortBuilders.fieldSort("id").order(SortOrder.DESC));
+        nativeSearchQueryBuilder.withSorts(sortList);
+        //从上一页最后一条数据的排序值之后开始查询，多查一条用于判断是否有下一页，不统计总数
+        String[] values = CommonCursorPage.decodeCursor(cursor, sortList.size());
+        if (values != null) {
+            //排序值均为数字，最后一个为id
+            List<Object> searchAfter = new ArrayList<>();
+            for (int i = 0; i < values.length - 1; i++) {
+                searchAfter.add(CommonCursorPage.parseDouble(values[i]));
+            }
+            searchAfter.add(CommonCursorPage.parseLong(values[values.length - 1]));
+            nativeSearchQueryBuilder.withSearchAfter(searchAfter);
+        }
+        nativeSearchQueryBuilder.withPageable(PageRequest.of(0, pageSize + 1));
+        nativeSearchQueryBuilder.withTrackTotalHits(false);
+        NativeSearchQuery searchQuery = nativeSearchQueryBuilder.build();
+        SearchHits<EsProduct> searchHits = elasticsearchRestTemplate.search(searchQuery, EsProduct.class);
+        CommonCursorPage<SearchHit<EsProduct>> hitPage = CommonCursorPage.restPage(searchHits.getSearchHits(), pageSize,
+                hit -> CommonCursorPage.encodeCursor(hit.getSortValues().toArray()));
+        CommonCursorPage<EsProduct> result = new CommonCursorPage<>();
+        result.setHasNext(hitPage.getHasNext());
+        result.setNextCursor(hitPage.getNextCursor());
+        result.setList(hitPage.getList().stream().map(SearchHit::getContent).collect(Collectors.toList()));
+        return result;
+    }
+
+    /**
+     * 根据关键字、品牌及分类构建综合搜索的查询条件
+     */
+    private NativeSearchQueryBuilder getSearchQueryBuilder(String keyword, Long brandId, Long productCategoryId) {
+        NativeSearchQueryBuilder nativeSearchQueryBuilder = new NativeSearchQueryBuilder();
         //过滤
         if (brandId != null || productCategoryId != null) {
             BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
@@ -141,40 +315,50 @@ public class EsProductServiceImpl implements EsProductService {
                     .setMinScore(2);
             nativeSearchQueryBuilder.withQuery(functionScoreQueryBuilder);
         }
-        //排序
-        if(sort==1){
-            //按新品从新到旧
-            nativeSearchQueryBuilder.withSorts(SortBuilders.fieldSort("id").order(SortOrder.DESC));
-        }else if(sort==2){
-            //按销量从高到低
-            nativeSearchQueryBuilder.withSorts(SortBuilders.fieldSort("sale").order(SortOrder.DESC));
-        }else if(sort==3){
-            //按价格从低到高
-            nativeSearchQueryBuilder.withSorts(SortBuilders.fieldSort("price").order(SortOrder.ASC));
-        }else if(sort==4){
-            //按价格从高到低
-            nativeSearchQueryBuilder.withSorts(SortBuilders.fieldSort("price").order(SortOrder.DESC));
-        }else{
-            //按相关度
-            nativeSearchQueryBuilder.withSorts(SortBuilders.scoreSort().order(SortOrder.DESC));
+        return nativeSearchQueryBuilder;
+    }
+
+    @Override
+    public List<String> suggest(String keyword, Integer size) {
+        String prefix = StrUtil.trimToEmpty(keyword).toLowerCase();
+        if (StrUtil.isEmpty(prefix) || size == null || size <= 0) {
+            return ListUtil.empty();
         }
-        nativeSearchQueryBuilder.withSorts(SortBuilders.scoreSort().order(SortOrder.DESC));
-        NativeSearchQuery searchQuery = nativeSearchQueryBuilder.build();
-        LOGGER.info("DSL:{}", searchQuery.getQuery().toString());
-        SearchHits<EsProduct> searchHits = elasticsearchRestTemplate.search(searchQuery, EsProduct.class);
-        if(searchHits.getTotalHits()<=0){
-            return new PageImpl<>(ListUtil.empty(),pageable,0);
+        int suggestSize = Math.min(size, SUGGEST_MAX_SIZE);
+        //补全前缀不计入关键词统计
+        return searchMetrics.record("suggest", null, null, null, null,
+                () -> searchCache.get("suggest:" + prefix + ":" + suggestSize, () -> doSuggest(prefix, suggestSize)), List::size);
+    }
+
+    private List<String> doSuggest(String prefix, int size) {
+        //只执行补全查询，不返回商品数据
+        SuggestBuilder suggestBuilder = new SuggestBuilder().addSuggestion("productSuggest",
+                SuggestBuilders.completionSuggestion("suggest").prefix(prefix).skipDuplicates(true).size(size));
+        SearchSourceBuilder sourceBuilder = new SearchSourceBuilder().size(0).fetchSource(false).suggest(suggestBuilder);
+        String index = elasticsearchRestTemplate.getIndexCoordinatesFor(EsProduct.class).getIndexName();
+        SearchResponse response = elasticsearchRestTemplate.execute(client ->
+                client.search(new SearchRequest(index).source(sourceBuilder), RequestOptions.DEFAULT));
+        CompletionSuggestion suggestion = response.getSuggest().getSuggestion("productSuggest");
+        List<String> result = new ArrayList<>(size);
+        for (CompletionSuggestion.Entry entry : suggestion.getEntries()) {
+            for (CompletionSuggestion.Entry.Option option : entry.getOptions()) {
+                result.add(option.getText().string());
+            }
         }
-        List<EsProduct> searchProductList = searchHits.stream().map(SearchHit::getContent).collect(Collectors.toList());
-        return new PageImpl<>(searchProductList,pageable,searchHits.getTotalHits());
+        return result;
     }
 
     @Override
     public Page<EsProduct> recommend(Long id, Integer pageNum, Integer pageSize) {
+        return searchMetrics.record("recommend", null, null, null, null,
+                () -> recommendCache.get(id, pageNum + ":" + pageSize, () -> doRecommend(id, pageNum, pageSize)), Page::getTotalElements);
+    }
+
+    private Page<EsProduct> doRecommend(Long id, Integer pageNum, Integer pageSize) {
         Pageable pageable = PageRequest.of(pageNum, pageSize);
-        List<EsProduct> esProductList = productDao.getAllEsProductList(id);
-        if (esProductList.size() > 0) {
-            EsProduct esProduct = esProductList.get(0);
+        //直接从索引获取源商品，不查询数据库
+        EsProduct esProduct = productRepository.findById(id).orElse(null);
+        if (esProduct != null) {
             String keyword = esProduct.getName();
             Long brandId = esProduct.getBrandId();
             Long productCategoryId = esProduct.getProductCategoryId();
@@ -204,7 +388,6 @@ public class EsProductServiceImpl implements EsProductService {
             builder.withFilter(boolQueryBuilder);
             builder.withPageable(pageable);
             NativeSearchQuery searchQuery = builder.build();
-            LOGGER.info("DSL:{}", searchQuery.getQuery().toString());
             SearchHits<EsProduct> searchHits = elasticsearchRestTemplate.search(searchQuery, EsProduct.class);
             if(searchHits.getTotalHits()<=0){
                 return new PageImpl<>(ListUtil.empty(),pageable,0);
@@ -217,6 +400,26 @@ public class EsProductServiceImpl implements EsProductService {
 
     @Override
     public EsProductRelatedInfo searchRelatedInfo(String keyword) {
+        String normalizedKeyword = StrUtil.trimToEmpty(keyword).toLowerCase();
+        keywordCounter.record(normalizedKeyword);
+        return searchMetrics.record("relatedInfo", normalizedKeyword, null, null, null,
+                () -> searchCache.get("relatedInfo:" + normalizedKeyword, () -> doSearchRelatedInfo(normalizedKeyword)),
+                info -> info.getBrandNames().size() + info.getProductCategoryNames().size());
+    }
+
+    @Override
+    public int precomputeRelatedInfo() {
+        List<String> keywordList = new ArrayList<>();
+        keywordList.add("");
+        keywordList.addAll(keywordCounter.top(FACET_TOP_SIZE));
+        keywordCounter.decay();
+        for (String keyword : keywordList) {
+            searchCache.refresh("relatedInfo:" + keyword, () -> doSearchRelatedInfo(keyword));
+        }
+        return keywordList.size();
+    }
+
+    private EsProductRelatedInfo doSearchRelatedInfo(String keyword) {
         NativeSearchQueryBuilder builder = new NativeSearchQueryBuilder();
         //搜索条件
         if(StrUtil.isEmpty(keyword)){
@@ -238,52 +441,47 @@ public class EsProductServiceImpl implements EsProductService {
                                 .subAggregation(AggregationBuilders.terms("attrNames")
                                         .field("attrValueList.name"))));
         builder.withAggregations(aggregationBuilder);
+        //只需要聚合结果
+        builder.withMaxResults(0);
         NativeSearchQuery searchQuery = builder.build();
         SearchHits<EsProduct> searchHits = elasticsearchRestTemplate.search(searchQuery, EsProduct.class);
         return convertProductRelatedInfo(searchHits);
     }
 
     /**
-     * 将返回结果转换为对象
+     * 将返回结果转换为对象，一次遍历各聚合桶
      */
     private EsProductRelatedInfo convertProductRelatedInfo(SearchHits<EsProduct> response) {
         EsProductRelatedInfo productRelatedInfo = new EsProductRelatedInfo();
-        Map<String, Aggregation> aggregationMap = ((Aggregations)response.getAggregations().aggregations()).asMap();
+        Aggregations aggregations = (Aggregations) response.getAggregations().aggregations();
         //设置品牌
-        Aggregation brandNames = aggregationMap.get("brandNames");
-        List<String> brandNameList = new ArrayList<>();
-        for(int i = 0; i<((Terms) brandNames).getBuckets().size(); i++){
-            brandNameList.add(((Terms) brandNames).getBuckets().get(i).getKeyAsString());
-        }
-        productRelatedInfo.setBrandNames(brandNameList);
+        productRelatedInfo.setBrandNames(getBucketKeys(aggregations.get("brandNames")));
         //设置分类
-        Aggregation productCategoryNames = aggregationMap.get("productCategoryNames");
-        List<String> productCategoryNameList = new ArrayList<>();
-        for(int i=0;i<((Terms) productCategoryNames).getBuckets().size();i++){
-            productCategoryNameList.add(((Terms) productCategoryNames).getBuckets().get(i).getKeyAsString());
-        }
-        productRelatedInfo.setProductCategoryNames(productCategoryNameList);
+        productRelatedInfo.setProductCategoryNames(getBucketKeys(aggregations.get("productCategoryNames")));
         //设置参数
-        Aggregation productAttrs = aggregationMap.get("allAttrValues");
-        List<? extends Terms.Bucket> attrIds = ((ParsedLongTerms) ((ParsedFilter) ((ParsedNested) productAttrs).getAggregations().get("productAttrs")).getAggregations().get("attrIds")).getBuckets();
-        List<EsProductRelatedInfo.ProductAttr> attrList = new ArrayList<>();
-        for (Terms.Bucket attrId : attrIds) {
+        ParsedNested allAttrValues = aggregations.get("allAttrValues");
+        ParsedFilter productAttrs = allAttrValues.getAggregations().get("productAttrs");
+        Terms attrIds = productAttrs.getAggregations().get("attrIds");
+        List<EsProductRelatedInfo.ProductAttr> attrList = new ArrayList<>(attrIds.getBuckets().size());
+        for (Terms.Bucket attrId : attrIds.getBuckets()) {
             EsProductRelatedInfo.ProductAttr attr = new EsProductRelatedInfo.ProductAttr();
-            attr.setAttrId((Long) attrId.getKey());
-            List<String> attrValueList = new ArrayList<>();
-            List<? extends Terms.Bucket> attrValues = ((ParsedStringTerms) attrId.getAggregations().get("attrValues")).getBuckets();
-            List<? extends Terms.Bucket> attrNames = ((ParsedStringTerms) attrId.getAggregations().get("attrNames")).getBuckets();
-            for (Terms.Bucket attrValue : attrValues) {
-                attrValueList.add(attrValue.getKeyAsString());
-            }
-            attr.setAttrValues(attrValueList);
-            if(!CollectionUtils.isEmpty(attrNames)){
-                String attrName = attrNames.get(0).getKeyAsString();
-                attr.setAttrName(attrName);
+            attr.setAttrId(attrId.getKeyAsNumber().longValue());
+            attr.setAttrValues(getBucketKeys(attrId.getAggregations().get("attrValues")));
+            Terms attrNames = attrId.getAggregations().get("attrNames");
+            if (!CollectionUtils.isEmpty(attrNames.getBuckets())) {
+                attr.setAttrName(attrNames.getBuckets().get(0).getKeyAsString());
             }
             attrList.add(attr);
         }
         productRelatedInfo.setProductAttrs(attrList);
         return productRelatedInfo;
     }
+
+    private List<String> getBucketKeys(Terms terms) {
+        List<String> keys = new ArrayList<>(terms.getBuckets().size());
+        for (Terms.Bucket bucket : terms.getBuckets()) {
+            keys.add(bucket.getKeyAsString());
+        }
+        return keys;
+    }
 }
@@ -0,0 +1,374 @@
+package com.macro.mall.search.service.impl;
+
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.util.StrUtil;
+import com.macro.mall.common.api.CommonCursorPage;
+import com.macro.mall.search.component.LuceneProductIndex;
+import com.macro.mall.search.dao.EsProductDao;
+import com.macro.mall.search.domain.EsProduct;
+import com.macro.mall.search.domain.EsProductChangeLog;
+import com.macro.mall.search.domain.EsProductImportResult;
+import com.macro.mall.search.domain.EsProductRelatedInfo;
+import com.macro.mall.search.service.EsProductService;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 基于嵌入式Lucene索引的搜索商品管理Service实现类，查询权重、过滤、排序与ES实现保持一致
+ * Created by macro on 2026/10/19.
+ */
+@Service
+@ConditionalOnProperty(prefix = "search", name = "engine", havingValue = "lucene")
+public class LuceneProductServiceImpl implements EsProductService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LuceneProductServiceImpl.class);
+    /**
+     * 与ES的terms聚合默认返回数量一致
+     */
+    private static final int FACET_SIZE = 10;
+    @Autowired
+    private EsProductDao productDao;
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+    @Autowired
+    private LuceneProductIndex productIndex;
+    @Value("${esSuggest.maxSize:20}")
+    private Integer SUGGEST_MAX_SIZE;
+
+    @Override
+    public int importAll() {
+        return bulkImportAll().getSuccess().intValue();
+    }
+
+    @Override
+    public EsProductImportResult bulkImportAll() {
+        long start = System.currentTimeMillis();
+        long count;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession();
+             Cursor<EsProduct> cursor = sqlSession.getMapper(EsProductDao.class).getAllEsProductCursor()) {
+            count = productIndex.replaceAll(cursor);
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("导入商品到Lucene失败", e);
+        }
+        EsProductImportResult result = new EsProductImportResult();
+        result.setTotal(count);
+        result.setSuccess(count);
+        result.setFailed(0L);
+        result.setElapsed(System.currentTimeMillis() - start);
+        result.setThroughput(result.getElapsed() == 0 ? result.getSuccess() : result.getSuccess() * 1000 / result.getElapsed());
+        result.setIndexName(productIndex.getPath());
+        LOGGER.info("导入商品到Lucene完成，索引：{}，数量：{}，耗时：{}ms", result.getIndexName(), count, result.getElapsed());
+        return result;
+    }
+
+    @Override
+    public EsProductImportResult reindex() {
+        //全量替换在提交时生效，提交前查询仍使用原索引
+        return bulkImportAll();
+    }
+
+    @Override
+    public int syncChangeLog(Integer limit) {
+        List<EsProductChangeLog> changeLogList = productDao.getChangeLogList(limit);
+        if (CollectionUtils.isEmpty(changeLogList)) {
+            return 0;
+        }
+        List<Long> productIds = changeLogList.stream().map(EsProductChangeLog::getProductId).distinct().collect(Collectors.toList());
+        List<EsProduct> esProductList = productDao.getEsProductListByIds(productIds);
+        if (!CollectionUtils.isEmpty(esProductList)) {
+            productIndex.update(esProductList);
+        }
+        Set<Long> existIds = esProductList.stream().map(EsProduct::getId).collect(Collectors.toSet());
+        delete(productIds.stream().filter(id -> !existIds.contains(id)).collect(Collectors.toList()));
+        productDao.deleteChangeLog(changeLogList.stream().map(EsProductChangeLog::getId).collect(Collectors.toList()));
+        return changeLogList.size();
+    }
+
+    @Override
+    public void delete(Long id) {
+        productIndex.delete(ListUtil.toList(id));
+    }
+
+    @Override
+    public EsProduct create(Long id) {
+        List<EsProduct> esProductList = productDao.getAllEsProductList(id);
+        if (esProductList.size() > 0) {
+            productIndex.update(esProductList);
+            return esProductList.get(0);
+        }
+        return null;
+    }
+
+    @Override
+    public void delete(List<Long> ids) {
+        if (!CollectionUtils.isEmpty(ids)) {
+            productIndex.delete(ids);
+        }
+    }
+
+    @Override
+    public Page<EsProduct> search(String keyword, Integer pageNum, Integer pageSize) {
+        Pageable pageable = PageRequest.of(pageNum, pageSize);
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        addMatch(builder, "name", keyword, 1);
+        addMatch(builder, "subTitle", keyword, 1);
+        addMatch(builder, "keywords", keyword, 1);
+        return searchPage(toQuery(builder), Sort.RELEVANCE, pageable);
+    }
+
+    @Override
+    public Page<EsProduct> search(String keyword, Long brandId, Long productCategoryId, Integer pageNum, Integer pageSize, Integer sort) {
+        Pageable pageable = PageRequest.of(pageNum, pageSize);
+        List<SortField> sortFieldList = new ArrayList<>();
+        if (sort == 1) {
+            //按新品从新到旧
+            sortFieldList.add(new SortField("idSort", SortField.Type.LONG, true));
+        } else if (sort == 2) {
+            //按销量从高到低
+            sortFieldList.add(new SortField("sale", SortField.Type.LONG, true));
+        } else if (sort == 3) {
+            //按价格从低到高
+            sortFieldList.add(new SortField("price", SortField.Type.DOUBLE));
+        } else if (sort == 4) {
+            //按价格从高到低
+            sortFieldList.add(new SortField("price", SortField.Type.DOUBLE, true));
+        } else {
+            //按相关度
+            sortFieldList.add(SortField.FIELD_SCORE);
+        }
+        sortFieldList.add(SortField.FIELD_SCORE);
+        return searchPage(getSearchQuery(keyword, brandId, productCategoryId), new Sort(sortFieldList.toArray(new SortField[0])), pageable);
+    }
+
+    @Override
+    public CommonCursorPage<EsProduct> searchCursor(String keyword, Long brandId, Long productCategoryId, String cursor, Integer pageSize, Integer sort) {
+        CommonCursorPage.checkPageSize(pageSize);
+        //排序，最后按id排序保证排序值唯一
+        List<SortField> sortFieldList = new ArrayList<>();
+        if (sort == 2) {
+            sortFieldList.add(new SortField("sale", SortField.Type.LONG, true));
+        } else if (sort == 3) {
+            sortFieldList.add(new SortField("price", SortField.Type.DOUBLE));
+        } else if (sort == 4) {
+            sortFieldList.add(new SortField("price", SortField.Type.DOUBLE, true));
+        } else if (sort != 1) {
+            sortFieldList.add(SortField.FIELD_SCORE);
+        }
+        sortFieldList.add(new SortField("idSort", SortField.Type.LONG, true));
+        FieldDoc after = null;
+        String[] values = CommonCursorPage.decodeCursor(cursor, sortFieldList.size());
+        if (values != null) {
+            Object[] fields = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                SortField.Type type = sortFieldList.get(i).getType();
+                if (type == SortField.Type.SCORE) {
+                    fields[i] = CommonCursorPage.parseDouble(values[i]).floatValue();
+                } else if (type == SortField.Type.DOUBLE) {
+                    fields[i] = CommonCursorPage.parseDouble(values[i]);
+                } else {
+                    fields[i] = CommonCursorPage.parseLong(values[i]);
+                }
+            }
+            //id唯一，不会比较到文档序号
+            after = new FieldDoc(Integer.MAX_VALUE, Float.NaN, fields);
+        }
+        LuceneProductIndex.SearchResult searchResult = productIndex.search(getSearchQuery(keyword, brandId, productCategoryId),
+                new Sort(sortFieldList.toArray(new SortField[0])), after, pageSize + 1);
+        CommonCursorPage<FieldDoc> docPage = CommonCursorPage.restPage(searchResult.getFieldDocList(), pageSize,
+                fieldDoc -> CommonCursorPage.encodeCursor(fieldDoc.fields));
+        CommonCursorPage<EsProduct> result = new CommonCursorPage<>();
+        result.setHasNext(docPage.getHasNext());
+        result.setNextCursor(docPage.getNextCursor());
+        result.setList(searchResult.getProductList().subList(0, docPage.getList().size()));
+        return result;
+    }
+
+    @Override
+    public List<String> suggest(String keyword, Integer size) {
+        String prefix = StrUtil.trimToEmpty(keyword).toLowerCase();
+        if (StrUtil.isEmpty(prefix) || size == null || size <= 0) {
+            return ListUtil.empty();
+        }
+        return productIndex.suggest(prefix, Math.min(size, SUGGEST_MAX_SIZE));
+    }
+
+    @Override
+    public Page<EsProduct> recommend(Long id, Integer pageNum, Integer pageSize) {
+        Pageable pageable = PageRequest.of(pageNum, pageSize);
+        EsProduct esProduct = productIndex.get(id);
+        if (esProduct == null) {
+            return new PageImpl<>(ListUtil.empty());
+        }
+        //根据商品标题、品牌、分类进行搜索
+        String keyword = esProduct.getName();
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        addMatch(builder, "name", keyword, 8);
+        addMatch(builder, "subTitle", keyword, 2);
+        addMatch(builder, "keywords", keyword, 2);
+        if (esProduct.getBrandId() != null) {
+            addShould(builder, LongPoint.newExactQuery("brandId", esProduct.getBrandId()), 5);
+        }
+        if (esProduct.getProductCategoryId() != null) {
+            addShould(builder, LongPoint.newExactQuery("productCategoryId", esProduct.getProductCategoryId()), 3);
+        }
+        //用于过滤掉相同的商品
+        builder.add(new TermQuery(new Term("id", String.valueOf(id))), BooleanClause.Occur.MUST_NOT);
+        return searchPage(toQuery(builder), Sort.RELEVANCE, pageable);
+    }
+
+    @Override
+    public EsProductRelatedInfo searchRelatedInfo(String keyword) {
+        Query query;
+        if (StrUtil.isEmpty(keyword)) {
+            query = new MatchAllDocsQuery();
+        } else {
+            BooleanQuery.Builder builder = new BooleanQuery.Builder();
+            addMatch(builder, "name", keyword, 1);
+            addMatch(builder, "subTitle", keyword, 1);
+            addMatch(builder, "keywords", keyword, 1);
+            query = toQuery(builder);
+        }
+        Map<String, Map<String, Integer>> facetMap = productIndex.facet(query, "brandName", "productCategoryName", "attr");
+        EsProductRelatedInfo productRelatedInfo = new EsProductRelatedInfo();
+        productRelatedInfo.setBrandNames(topKeys(facetMap.get("brandName"), FACET_SIZE));
+        productRelatedInfo.setProductCategoryNames(topKeys(facetMap.get("productCategoryName"), FACET_SIZE));
+        //按属性ID分组，统计各属性的值及名称
+        Map<Long, Map<String, Integer>> attrValueMap = new LinkedHashMap<>();
+        Map<Long, Map<String, Integer>> attrNameMap = new LinkedHashMap<>();
+        Map<String, Integer> attrIdCounts = new LinkedHashMap<>();
+        facetMap.get("attr").forEach((key, count) -> {
+            String[] parts = key.split(LuceneProductIndex.ATTR_SEPARATOR, 3);
+            Long attrId = Long.valueOf(parts[0]);
+            attrIdCounts.merge(parts[0], count, Integer::sum);
+            attrNameMap.computeIfAbsent(attrId, k -> new LinkedHashMap<>()).merge(parts[1], count, Integer::sum);
+            attrValueMap.computeIfAbsent(attrId, k -> new LinkedHashMap<>()).merge(parts[2], count, Integer::sum);
+        });
+        List<EsProductRelatedInfo.ProductAttr> attrList = new ArrayList<>();
+        for (String attrIdKey : topKeys(attrIdCounts, FACET_SIZE)) {
+            Long attrId = Long.valueOf(attrIdKey);
+            EsProductRelatedInfo.ProductAttr attr = new EsProductRelatedInfo.ProductAttr();
+            attr.setAttrId(attrId);
+            attr.setAttrValues(topKeys(attrValueMap.get(attrId), FACET_SIZE));
+            List<String> attrNames = topKeys(attrNameMap.get(attrId), 1);
+            if (!attrNames.isEmpty()) {
+                attr.setAttrName(attrNames.get(0));
+            }
+            attrList.add(attr);
+        }
+        productRelatedInfo.setProductAttrs(attrList);
+        return productRelatedInfo;
+    }
+
+    @Override
+    public int precomputeRelatedInfo() {
+        //本地索引直接统计，无需预先计算
+        return 0;
+    }
+
+    /**
+     * 根据关键字、品牌及分类构建综合搜索的查询条件，按命中字段累加权重
+     */
+    private Query getSearchQuery(String keyword, Long brandId, Long productCategoryId) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        //过滤
+        if (brandId != null) {
+            builder.add(LongPoint.newExactQuery("brandId", brandId), BooleanClause.Occur.FILTER);
+        }
+        if (productCategoryId != null) {
+            builder.add(LongPoint.newExactQuery("productCategoryId", productCategoryId), BooleanClause.Occur.FILTER);
+        }
+        //搜索
+        if (StrUtil.isEmpty(keyword)) {
+            builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+            return builder.build();
+        }
+        addMatch(builder, "name", keyword, 10);
+        addMatch(builder, "subTitle", keyword, 5);
+        addMatch(builder, "keywords", keyword, 2);
+        return toQuery(builder);
+    }
+
+    /**
+     * 添加字段匹配条件，命中时得分为固定权重，与ES的weight函数一致
+     */
+    private void addMatch(BooleanQuery.Builder builder, String field, String keyword, float weight) {
+        if (StrUtil.isEmpty(keyword)) {
+            return;
+        }
+        Query query = new QueryBuilder(productIndex.getAnalyzer()).createBooleanQuery(field, keyword);
+        if (query != null) {
+            addShould(builder, query, weight);
+        }
+    }
+
+    private void addShould(BooleanQuery.Builder builder, Query query, float weight) {
+        builder.add(new BoostQuery(new ConstantScoreQuery(query), weight), BooleanClause.Occur.SHOULD);
+    }
+
+    /**
+     * 至少命中一个匹配条件，没有可用的匹配条件时不返回数据
+     */
+    private Query toQuery(BooleanQuery.Builder builder) {
+        BooleanQuery query = builder.setMinimumNumberShouldMatch(1).build();
+        boolean hasShould = query.clauses().stream().anyMatch(clause -> clause.getOccur() == BooleanClause.Occur.SHOULD);
+        return hasShould ? query : new MatchNoDocsQuery();
+    }
+
+    private Page<EsProduct> searchPage(Query query, Sort sort, Pageable pageable) {
+        int from = (int) pageable.getOffset();
+        LuceneProductIndex.SearchResult searchResult = productIndex.search(query, sort, null, from + pageable.getPageSize());
+        if (searchResult.getTotal() <= 0 || searchResult.getProductList().size() <= from) {
+            return new PageImpl<>(ListUtil.empty(), pageable, searchResult.getTotal());
+        }
+        List<EsProduct> productList = searchResult.getProductList();
+        return new PageImpl<>(productList.subList(from, productList.size()), pageable, searchResult.getTotal());
+    }
+
+    /**
+     * 按数量从多到少获取前几个值，数量相同时按值排序
+     */
+    private List<String> topKeys(Map<String, Integer> counts, int size) {
+        if (counts == null) {
+            return new ArrayList<>();
+        }
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+}
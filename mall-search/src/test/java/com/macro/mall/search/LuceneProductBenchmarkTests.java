@@ -0,0 +1,103 @@
+package com.macro.mall.search;
+
+import com.macro.mall.search.component.EsSearchCache;
+import com.macro.mall.search.component.LuceneProductIndex;
+import com.macro.mall.search.service.EsProductService;
+import com.macro.mall.search.service.impl.LuceneProductServiceImpl;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 对比ES与嵌入式Lucene搜索商品的耗时，需要本地数据库及ES环境
+ * 默认不执行，运行方式：mvn test -pl mall-search -DskipTests=false -Dtest=LuceneProductBenchmarkTests -Dbenchmark=true
+ * Created by macro on 2026/10/19.
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest
+public class LuceneProductBenchmarkTests {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LuceneProductBenchmarkTests.class);
+    private static final List<String> KEYWORDS = Arrays.asList("", "手机", "小米", "华为", "T恤", "笔记本");
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 500;
+    @Autowired
+    private EsProductService esProductService;
+    @Autowired
+    private EsSearchCache searchCache;
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+    private LuceneProductIndex productIndex;
+    private LuceneProductServiceImpl luceneProductService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        productIndex = new LuceneProductIndex(Files.createTempDirectory("pms").toString());
+        luceneProductService = new LuceneProductServiceImpl();
+        ReflectionTestUtils.setField(luceneProductService, "sqlSessionFactory", sqlSessionFactory);
+        ReflectionTestUtils.setField(luceneProductService, "productIndex", productIndex);
+        LOGGER.info("Lucene导入结果：{}", luceneProductService.bulkImportAll());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        productIndex.close();
+    }
+
+    @Test
+    public void benchmarkSearch() {
+        for (int sort = 0; sort <= 4; sort++) {
+            for (String keyword : KEYWORDS) {
+                int currentSort = sort;
+                String name = "search keyword=" + keyword + " sort=" + sort;
+                measure("ES     " + name, () -> {
+                    //每次查询前清空缓存，只统计ES查询耗时
+                    searchCache.invalidate();
+                    return esProductService.search(keyword, null, null, 0, 10, currentSort);
+                });
+                measure("Lucene " + name, () -> luceneProductService.search(keyword, null, null, 0, 10, currentSort));
+            }
+        }
+    }
+
+    @Test
+    public void benchmarkRelatedInfo() {
+        for (String keyword : KEYWORDS) {
+            measure("ES     relatedInfo keyword=" + keyword, () -> {
+                searchCache.invalidate();
+                return esProductService.searchRelatedInfo(keyword);
+            });
+            measure("Lucene relatedInfo keyword=" + keyword, () -> luceneProductService.searchRelatedInfo(keyword));
+        }
+    }
+
+    private void measure(String name, Supplier<Object> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.get();
+        }
+        long[] elapsed = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            query.get();
+            elapsed[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(elapsed);
+        double avg = Arrays.stream(elapsed).average().orElse(0) / 1000;
+        LOGGER.info("{} avg={}us p50={}us p99={}us", name, String.format("%.1f", avg),
+                elapsed[ITERATIONS / 2] / 1000, elapsed[ITERATIONS * 99 / 100] / 1000);
+    }
+}
@@ -0,0 +1,170 @@
+package com.macro.mall.search;
+
+import com.macro.mall.common.api.CommonCursorPage;
+import com.macro.mall.common.exception.ApiException;
+import com.macro.mall.search.component.LuceneProductIndex;
+import com.macro.mall.search.domain.EsProduct;
+import com.macro.mall.search.domain.EsProductAttributeValue;
+import com.macro.mall.search.domain.EsProductRelatedInfo;
+import com.macro.mall.search.service.impl.LuceneProductServiceImpl;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 嵌入式Lucene商品搜索测试，使用内存索引，不依赖数据库及ES
+ * Created by macro on 2026/10/19.
+ */
+public class LuceneProductIndexTests {
+    private LuceneProductIndex productIndex;
+    private LuceneProductServiceImpl productService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        productIndex = new LuceneProductIndex("memory", new ByteBuffersDirectory());
+        productService = new LuceneProductServiceImpl();
+        ReflectionTestUtils.setField(productService, "productIndex", productIndex);
+        ReflectionTestUtils.setField(productService, "SUGGEST_MAX_SIZE", 20);
+        productIndex.replaceAll(Arrays.asList(
+                product(1L, "小米手机", 1L, "小米", 19L, "手机通讯", "1999", 100, "黑色"),
+                product(2L, "华为手机", 2L, "华为", 19L, "手机通讯", "2999", 300, "白色"),
+                product(3L, "小米笔记本", 1L, "小米", 20L, "笔记本", "4999", 50, null),
+                product(4L, "纯棉T恤", 3L, "万和", 8L, "T恤", "99", 500, null)));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        productIndex.close();
+    }
+
+    @Test
+    public void testSearchByKeyword() {
+        Page<EsProduct> page = productService.search("手机", null, null, 0, 10, 0);
+        assertEquals(2, page.getTotalElements());
+        assertEquals(Arrays.asList(1L, 2L), sortedIds(page.getContent()));
+        assertEquals(0, productService.search("冰箱", null, null, 0, 10, 0).getTotalElements());
+    }
+
+    @Test
+    public void testSearchWithFilter() {
+        assertEquals(Arrays.asList(1L, 3L), sortedIds(productService.search(null, 1L, null, 0, 10, 0).getContent()));
+        assertEquals(Collections.singletonList(1L), ids(productService.search(null, 1L, 19L, 0, 10, 0).getContent()));
+        assertEquals(Collections.singletonList(2L), ids(productService.search("手机", 2L, null, 0, 10, 0).getContent()));
+    }
+
+    @Test
+    public void testSearchSort() {
+        assertEquals(Arrays.asList(4L, 3L, 2L, 1L), ids(productService.search(null, null, null, 0, 10, 1).getContent()));
+        assertEquals(Arrays.asList(4L, 2L, 1L, 3L), ids(productService.search(null, null, null, 0, 10, 2).getContent()));
+        assertEquals(Arrays.asList(4L, 1L, 2L, 3L), ids(productService.search(null, null, null, 0, 10, 3).getContent()));
+        assertEquals(Arrays.asList(3L, 2L, 1L, 4L), ids(productService.search(null, null, null, 0, 10, 4).getContent()));
+        Page<EsProduct> page = productService.search(null, null, null, 1, 3, 3);
+        assertEquals(4, page.getTotalElements());
+        assertEquals(Collections.singletonList(3L), ids(page.getContent()));
+    }
+
+    @Test
+    public void testSearchCursor() {
+        CommonCursorPage<EsProduct> first = productService.searchCursor(null, null, null, null, 2, 3);
+        assertEquals(Arrays.asList(4L, 1L), ids(first.getList()));
+        assertTrue(first.getHasNext());
+        CommonCursorPage<EsProduct> second = productService.searchCursor(null, null, null, first.getNextCursor(), 2, 3);
+        assertEquals(Arrays.asList(2L, 3L), ids(second.getList()));
+        assertFalse(second.getHasNext());
+        assertNull(second.getNextCursor());
+        //按相关度排序时得分相同，按id从大到小
+        CommonCursorPage<EsProduct> scoreFirst = productService.searchCursor(null, null, null, null, 3, 0);
+        assertEquals(Arrays.asList(4L, 3L, 2L), ids(scoreFirst.getList()));
+        CommonCursorPage<EsProduct> scoreSecond = productService.searchCursor(null, null, null, scoreFirst.getNextCursor(), 3, 0);
+        assertEquals(Collections.singletonList(1L), ids(scoreSecond.getList()));
+    }
+
+    @Test
+    public void testSearchCursorInvalid() {
+        assertThrows(ApiException.class, () -> productService.searchCursor(null, null, null, null, 0, 0));
+        assertThrows(ApiException.class, () -> productService.searchCursor(null, null, null, null, CommonCursorPage.MAX_PAGE_SIZE + 1, 0));
+        assertThrows(ApiException.class, () -> productService.searchCursor(null, null, null, "bad", 2, 0));
+        String cursor = CommonCursorPage.encodeCursor("abc", "1");
+        assertThrows(ApiException.class, () -> productService.searchCursor(null, null, null, cursor, 2, 3));
+    }
+
+    @Test
+    public void testUpdateAndDelete() {
+        productIndex.update(Collections.singletonList(product(4L, "纯棉衬衫", 3L, "万和", 8L, "衬衫", "129", 500, null)));
+        assertEquals(Collections.singletonList(4L), ids(productService.search("衬衫", null, null, 0, 10, 0).getContent()));
+        assertEquals(new BigDecimal("129"), productIndex.get(4L).getPrice());
+        assertEquals(4, productService.search(null, null, null, 0, 10, 0).getTotalElements());
+        productService.delete(1L);
+        assertNull(productIndex.get(1L));
+        assertEquals(Collections.singletonList(2L), ids(productService.search("手机", null, null, 0, 10, 0).getContent()));
+        productService.delete(Arrays.asList(2L, 3L));
+        assertEquals(Collections.singletonList(4L), ids(productService.search(null, null, null, 0, 10, 0).getContent()));
+    }
+
+    @Test
+    public void testRecommendAndRelatedInfo() {
+        List<Long> recommendIds = ids(productService.recommend(1L, 0, 10).getContent());
+        assertFalse(recommendIds.contains(1L));
+        assertEquals(Long.valueOf(3L), recommendIds.get(0));
+        EsProductRelatedInfo relatedInfo = productService.searchRelatedInfo("手机");
+        assertEquals(Arrays.asList("华为", "小米"), relatedInfo.getBrandNames());
+        assertEquals(Collections.singletonList("手机通讯"), relatedInfo.getProductCategoryNames());
+        assertEquals(1, relatedInfo.getProductAttrs().size());
+        assertEquals("颜色", relatedInfo.getProductAttrs().get(0).getAttrName());
+        assertEquals(Arrays.asList("白色", "黑色"), relatedInfo.getProductAttrs().get(0).getAttrValues());
+    }
+
+    @Test
+    public void testSuggest() {
+        assertEquals(Arrays.asList("小米", "小米手机", "小米笔记本"), productService.suggest("小米", 10).stream().sorted().collect(Collectors.toList()));
+        assertTrue(productService.suggest(" ", 10).isEmpty());
+        assertTrue(productService.suggest("小米", 0).isEmpty());
+        assertTrue(productService.suggest("小米", -1).isEmpty());
+        assertEquals(1, productService.suggest("小米", 1).size());
+    }
+
+    private EsProduct product(Long id, String name, Long brandId, String brandName, Long productCategoryId,
+                              String productCategoryName, String price, Integer sale, String color) {
+        EsProduct product = new EsProduct();
+        product.setId(id);
+        product.setName(name);
+        product.setBrandId(brandId);
+        product.setBrandName(brandName);
+        product.setProductCategoryId(productCategoryId);
+        product.setProductCategoryName(productCategoryName);
+        product.setPrice(new BigDecimal(price));
+        product.setSale(sale);
+        List<EsProductAttributeValue> attrValueList = new ArrayList<>();
+        if (color != null) {
+            EsProductAttributeValue attrValue = new EsProductAttributeValue();
+            attrValue.setProductAttributeId(10L);
+            attrValue.setName("颜色");
+            attrValue.setValue(color);
+            attrValue.setType(1);
+            attrValueList.add(attrValue);
+        }
+        product.setAttrValueList(attrValueList);
+        return product;
+    }
+
+    private List<Long> ids(List<EsProduct> productList) {
+        return productList.stream().map(EsProduct::getId).collect(Collectors.toList());
+    }
+
+    private List<Long> sortedIds(List<EsProduct> productList) {
+        return productList.stream().map(EsProduct::getId).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,101 @@
+package com.macro.mall.security.component;
+
+import cn.hutool.core.thread.ThreadUtil;
+import com.macro.mall.common.exception.Asserts;
+import com.macro.mall.security.util.TokenBucketSketch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+
+/**
+ * 登录密码校验器，在独立的有界线程池中校验密码，避免登录请求占满CPU影响其他请求；
+ * 校验前按用户名及IP进行令牌桶限流，超出限制的请求不进行密码计算；
+ * IP使用连接的对端地址，不读取客户端可伪造的x-forwarded-for，部署在反向代理后时需由容器根据可信代理解析真实地址
+ * Created by macro on 2026/10/19.
+ */
+public class CredentialVerifier {
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Value("${secure.credential.poolSize:0}")
+    private Integer poolSize;
+    @Value("${secure.credential.queueCapacity:100}")
+    private Integer queueCapacity;
+    @Value("${secure.credential.timeout:5000}")
+    private Long timeout;
+    @Value("${secure.credential.sketchWidth:16384}")
+    private Integer sketchWidth;
+    @Value("${secure.credential.usernameBurst:5}")
+    private Double usernameBurst;
+    @Value("${secure.credential.usernameRate:0.2}")
+    private Double usernameRate;
+    @Value("${secure.credential.ipBurst:20}")
+    private Double ipBurst;
+    @Value("${secure.credential.ipRate:1}")
+    private Double ipRate;
+    private ThreadPoolExecutor executor;
+    private TokenBucketSketch usernameBuckets;
+    private TokenBucketSketch ipBuckets;
+
+    @PostConstruct
+    public void init() {
+        //未配置线程数时使用一半的CPU核数
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), ThreadUtil.newNamedThreadFactory("credential-verify-", true),
+                new ThreadPoolExecutor.AbortPolicy());
+        usernameBuckets = new TokenBucketSketch(sketchWidth, usernameBurst, usernameRate);
+        ipBuckets = new TokenBucketSketch(sketchWidth, ipBurst, ipRate);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 校验登录密码，请求过于频繁或校验繁忙时直接返回失败信息
+     *
+     * @param username        用户名
+     * @param rawPassword     用户输入的密码
+     * @param encodedPassword 数据库中加密后的密码
+     */
+    public boolean matches(String username, String rawPassword, String encodedPassword) {
+        if (!usernameBuckets.tryAcquire(username)) {
+            Asserts.fail("登录尝试过于频繁，请稍后再试");
+        }
+        String ip = getRequestIp();
+        if (ip != null && !ipBuckets.tryAcquire(ip)) {
+            Asserts.fail("登录尝试过于频繁，请稍后再试");
+        }
+        Future<Boolean> future;
+        try {
+            future = executor.submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+        } catch (RejectedExecutionException e) {
+            Asserts.fail("登录人数过多，请稍后再试");
+            return false;
+        }
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            Asserts.fail("登录人数过多，请稍后再试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Asserts.fail("登录已中断");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("密码校验失败", e.getCause());
+        }
+        return false;
+    }
+
+    private String getRequestIp() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        return attributes == null ? null : attributes.getRequest().getRemoteAddr();
+    }
+}
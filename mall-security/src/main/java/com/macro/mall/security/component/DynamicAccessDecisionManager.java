@@ -8,6 +8,7 @@ import org.springframework.security.authentication.InsufficientAuthenticationExc
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
 
@@ -24,9 +25,20 @@ public class DynamicAccessDecisionManager implements AccessDecisionManager {
         if (CollUtil.isEmpty(configAttributes)) {
             return;
         }
+        //用户信息带有资源ID位图时直接按资源ID判断
+        BitSet resourceIds = null;
+        if (authentication.getPrincipal() instanceof DynamicSecurityUserDetails) {
+            resourceIds = ((DynamicSecurityUserDetails) authentication.getPrincipal()).getResourceIds();
+        }
         Iterator<ConfigAttribute> iterator = configAttributes.iterator();
         while (iterator.hasNext()) {
             ConfigAttribute configAttribute = iterator.next();
+            if (resourceIds != null && configAttribute instanceof ResourceConfigAttribute) {
+                if (resourceIds.get(((ResourceConfigAttribute) configAttribute).getResourceId())) {
+                    return;
+                }
+                continue;
+            }
             //将访问所需资源或用户拥有资源进行比对
             String needAuthority = configAttribute.getAttribute();
             for (GrantedAuthority grantedAuthority : authentication.getAuthorities()) {
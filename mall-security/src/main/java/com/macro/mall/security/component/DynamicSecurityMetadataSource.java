@@ -1,53 +1,122 @@
 package com.macro.mall.security.component;
 
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.URLUtil;
+import com.macro.mall.common.service.RedisService;
+import com.macro.mall.security.util.PathPatternIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.security.access.ConfigAttribute;
 import org.springframework.security.web.FilterInvocation;
 import org.springframework.security.web.access.intercept.FilterInvocationSecurityMetadataSource;
-import org.springframework.util.AntPathMatcher;
-import org.springframework.util.PathMatcher;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 动态权限数据源，用于获取动态权限规则
+ * 权限规则预编译为路径匹配索引，并缓存访问路径对应的资源，加载时解析出资源ID用于按位图鉴权
+ * 权限规则以不可变快照保存，在后台线程重新加载后原子替换，请求不会因重新加载而阻塞；
+ * 资源修改后通过Redis频道通知各节点重新加载
  * Created by macro on 2020/2/7.
  */
 public class DynamicSecurityMetadataSource implements FilterInvocationSecurityMetadataSource {
-
-    private static Map<String, ConfigAttribute> configAttributeMap = null;
+    private static final Logger LOGGER = LoggerFactory.getLogger(DynamicSecurityMetadataSource.class);
     @Autowired
     private DynamicSecurityService dynamicSecurityService;
+    @Autowired
+    private RedisService redisService;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.channel.dynamicSecurity:ums:dynamicSecurity:reload}")
+    private String REDIS_CHANNEL_DYNAMIC_SECURITY;
+    @Value("${secure.dynamic.pathCacheCapacity:10000}")
+    private Integer pathCacheCapacity;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong();
+    //未处理的重新加载请求数，重新加载过程中收到的请求合并为一次
+    private final AtomicInteger reloadRequests = new AtomicInteger();
+    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(
+            ThreadUtil.newNamedThreadFactory("dynamic-security-reload-", true));
 
     @PostConstruct
+    public void init() {
+        loadDataSource();
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> reloadDataSource(),
+                new ChannelTopic(getChannel()));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        reloadExecutor.shutdownNow();
+    }
+
+    /**
+     * 同步加载权限规则并替换当前快照
+     */
     public void loadDataSource() {
-        configAttributeMap = dynamicSecurityService.loadDataSource();
+        Map<String, ConfigAttribute> dataSource = dynamicSecurityService.loadDataSource();
+        Map<String, ConfigAttribute> attributeMap = new LinkedHashMap<>(dataSource.size());
+        dataSource.forEach((url, configAttribute) -> attributeMap.put(url, ResourceConfigAttribute.parse(configAttribute)));
+        Snapshot loaded = new Snapshot(version.incrementAndGet(), attributeMap, pathCacheCapacity);
+        snapshot.set(loaded);
+        LOGGER.info("动态权限规则已加载，版本：{}，规则数：{}", loaded.version, attributeMap.size());
+    }
+
+    /**
+     * 在后台线程重新加载本节点的权限规则，加载完成前继续使用原有规则
+     */
+    public void reloadDataSource() {
+        if (reloadRequests.getAndIncrement() == 0) {
+            reloadExecutor.execute(this::doReload);
+        }
     }
 
-    public void clearDataSource() {
-        configAttributeMap.clear();
-        configAttributeMap = null;
+    /**
+     * 通知所有节点重新加载权限规则
+     */
+    public void publishReload() {
+        try {
+            redisService.convertAndSend(getChannel(), String.valueOf(version.get()));
+        } catch (Exception e) {
+            LOGGER.warn("发送动态权限规则更新通知失败，仅重新加载本节点", e);
+            reloadDataSource();
+        }
+    }
+
+    /**
+     * 获取当前使用的权限规则版本
+     */
+    public long getVersion() {
+        return snapshot.get().version;
     }
 
     @Override
     public Collection<ConfigAttribute> getAttributes(Object o) throws IllegalArgumentException {
-        if (configAttributeMap == null) this.loadDataSource();
-        List<ConfigAttribute>  configAttributes = new ArrayList<>();
+        Snapshot current = snapshot.get();
         //获取当前访问的路径
         String url = ((FilterInvocation) o).getRequestUrl();
         String path = URLUtil.getPath(url);
-        PathMatcher pathMatcher = new AntPathMatcher();
-        Iterator<String> iterator = configAttributeMap.keySet().iterator();
-        //获取访问该路径所需资源
-        while (iterator.hasNext()) {
-            String pattern = iterator.next();
-            if (pathMatcher.match(pattern, path)) {
-                configAttributes.add(configAttributeMap.get(pattern));
-            }
+        //获取访问该路径所需资源，未设置操作请求权限时返回空集合
+        List<ConfigAttribute> configAttributes = current.pathCache.get(path);
+        if (configAttributes == null) {
+            configAttributes = Collections.unmodifiableList(current.index.match(path));
+            current.pathCache.put(path, configAttributes);
         }
-        // 未设置操作请求权限，返回空集合
         return configAttributes;
     }
 
@@ -61,4 +130,35 @@ public class DynamicSecurityMetadataSource implements FilterInvocationSecurityMe
         return true;
     }
 
+    private void doReload() {
+        int requests;
+        do {
+            requests = reloadRequests.get();
+            try {
+                loadDataSource();
+            } catch (Exception e) {
+                LOGGER.error("重新加载动态权限规则失败，继续使用版本：{}", snapshot.get().version, e);
+            }
+        } while (reloadRequests.addAndGet(-requests) > 0);
+    }
+
+    private String getChannel() {
+        return REDIS_DATABASE + ":" + REDIS_CHANNEL_DYNAMIC_SECURITY;
+    }
+
+    /**
+     * 权限规则快照，创建后不再修改，访问路径缓存随快照一起替换
+     */
+    private static class Snapshot {
+        private final long version;
+        private final PathPatternIndex<ConfigAttribute> index;
+        private final Cache<String, List<ConfigAttribute>> pathCache;
+
+        private Snapshot(long version, Map<String, ConfigAttribute> configAttributeMap, int pathCacheCapacity) {
+            this.version = version;
+            this.index = new PathPatternIndex<>(configAttributeMap);
+            this.pathCache = CacheUtil.newLRUCache(pathCacheCapacity);
+        }
+    }
+
 }
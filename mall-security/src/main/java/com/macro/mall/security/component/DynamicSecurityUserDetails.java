@@ -0,0 +1,21 @@
+package com.macro.mall.security.component;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.BitSet;
+
+/**
+ * 使用动态权限时的用户信息，拥有的资源以资源ID为下标的位图表示，用于快速鉴权
+ * Created by macro on 2026/10/19.
+ */
+public interface DynamicSecurityUserDetails extends UserDetails {
+    /**
+     * 获取用户拥有的资源ID位图，应在创建用户信息时计算
+     */
+    BitSet getResourceIds();
+
+    /**
+     * 获取用户信息对应的权限版本，需在加载资源前读取，保证资源不会比版本旧；为null时不生成自包含token
+     */
+    Long getPermissionEpoch();
+}
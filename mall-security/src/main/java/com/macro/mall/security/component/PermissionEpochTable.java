@@ -0,0 +1,141 @@
+package com.macro.mall.security.component;
+
+import cn.hutool.core.thread.ThreadUtil;
+import com.macro.mall.common.service.RedisService;
+import com.macro.mall.common.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户权限版本表，用于判断自包含token中的权限是否仍然有效
+ * 版本号保存在Redis中，各节点在本地保存一份，修改后通过Redis频道通知各节点更新；
+ * 用户的权限版本为全局版本与该用户版本之和，任一版本增加后之前签发的token需重新加载用户信息；
+ * 版本在修改权限的事务提交后增加，并定时从Redis重新加载，避免遗漏断线期间的通知
+ * Created by macro on 2026/10/19.
+ */
+public class PermissionEpochTable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PermissionEpochTable.class);
+    private static final String GLOBAL_EPOCH = "*";
+    @Autowired
+    private RedisService redisService;
+    @Autowired
+    private RedisSerializer<Object> redisSerializer;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.key.permissionEpoch:ums:permissionEpoch}")
+    private String REDIS_KEY_PERMISSION_EPOCH;
+    @Value("${redis.channel.permissionEpoch:ums:permissionEpoch:change}")
+    private String REDIS_CHANNEL_PERMISSION_EPOCH;
+    @Value("${jwt.selfContained.syncInterval:60}")
+    private Long SYNC_INTERVAL;
+    private final Map<String, Long> epochMap = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        //消息内容为用户名及其新版本号，先订阅再加载，避免遗漏加载期间的修改
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            Map<String, Number> changed = (Map<String, Number>) redisSerializer.deserialize(message.getBody());
+            if (changed != null) {
+                changed.forEach((username, epoch) -> updateLocal(username, epoch.longValue()));
+            }
+        }, new ChannelTopic(REDIS_DATABASE + ":" + REDIS_CHANNEL_PERMISSION_EPOCH));
+        sync();
+        LOGGER.info("权限版本表已加载，记录数：{}", epochMap.size());
+        executor = Executors.newSingleThreadScheduledExecutor(ThreadUtil.newNamedThreadFactory("permission-epoch-", true));
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                sync();
+            } catch (Exception e) {
+                LOGGER.warn("重新加载权限版本表失败", e);
+            }
+        }, SYNC_INTERVAL, SYNC_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 获取用户当前的权限版本
+     */
+    public long getEpoch(String username) {
+        return epochMap.getOrDefault(GLOBAL_EPOCH, 0L) + epochMap.getOrDefault(username, 0L);
+    }
+
+    /**
+     * 判断token中的权限版本是否为用户当前的权限版本
+     */
+    public boolean isCurrent(String username, long epoch) {
+        return getEpoch(username) == epoch;
+    }
+
+    /**
+     * 增加指定用户的权限版本，使其已签发的token需重新加载用户信息，在事务中调用时提交后再增加
+     */
+    public void increase(Collection<String> usernames) {
+        List<String> usernameList = new ArrayList<>(usernames);
+        TransactionUtil.afterCommit(() -> {
+            Map<String, Long> changed = new HashMap<>();
+            for (String username : usernameList) {
+                changed.put(username, redisService.hIncr(getKey(), username, 1L));
+            }
+            publish(changed);
+        });
+    }
+
+    /**
+     * 增加全局权限版本，使所有已签发的token需重新加载用户信息，在事务中调用时提交后再增加
+     */
+    public void increaseAll() {
+        TransactionUtil.afterCommit(() -> {
+            Map<String, Long> changed = new HashMap<>();
+            changed.put(GLOBAL_EPOCH, redisService.hIncr(getKey(), GLOBAL_EPOCH, 1L));
+            publish(changed);
+        });
+    }
+
+    /**
+     * 从Redis加载全部版本号
+     */
+    private void sync() {
+        Map<Object, Object> epochs = redisService.hGetAll(getKey());
+        epochs.forEach((username, epoch) -> updateLocal((String) username, ((Number) epoch).longValue()));
+    }
+
+    private void publish(Map<String, Long> changed) {
+        changed.forEach(this::updateLocal);
+        redisService.convertAndSend(REDIS_DATABASE + ":" + REDIS_CHANNEL_PERMISSION_EPOCH, changed);
+    }
+
+    /**
+     * 版本号只增不减，忽略乱序到达的旧版本
+     */
+    private void updateLocal(String username, long epoch) {
+        epochMap.merge(username, epoch, Math::max);
+    }
+
+    private String getKey() {
+        return REDIS_DATABASE + ":" + REDIS_KEY_PERMISSION_EPOCH;
+    }
+}
@@ -0,0 +1,52 @@
+package com.macro.mall.security.component;
+
+import org.springframework.security.access.ConfigAttribute;
+
+/**
+ * 动态权限资源，加载权限规则时从"资源ID:资源名称"中解析出资源ID
+ * Created by macro on 2026/10/19.
+ */
+public class ResourceConfigAttribute implements ConfigAttribute {
+    private final String attribute;
+    private final int resourceId;
+
+    public ResourceConfigAttribute(String attribute, int resourceId) {
+        this.attribute = attribute;
+        this.resourceId = resourceId;
+    }
+
+    /**
+     * 解析资源ID，格式不符时返回原对象
+     */
+    public static ConfigAttribute parse(ConfigAttribute configAttribute) {
+        String attribute = configAttribute.getAttribute();
+        if (attribute == null) {
+            return configAttribute;
+        }
+        attribute = attribute.trim();
+        int index = attribute.indexOf(':');
+        if (index <= 0) {
+            return configAttribute;
+        }
+        try {
+            int resourceId = Integer.parseInt(attribute.substring(0, index));
+            return resourceId < 0 ? configAttribute : new ResourceConfigAttribute(attribute, resourceId);
+        } catch (NumberFormatException e) {
+            return configAttribute;
+        }
+    }
+
+    public int getResourceId() {
+        return resourceId;
+    }
+
+    @Override
+    public String getAttribute() {
+        return attribute;
+    }
+
+    @Override
+    public String toString() {
+        return attribute;
+    }
+}
@@ -0,0 +1,71 @@
+package com.macro.mall.security.component;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * 从自包含token中还原的用户信息，只包含用户名及拥有的资源ID，鉴权时无需查询用户
+ * Created by macro on 2026/10/19.
+ */
+public class TokenUserDetails implements DynamicSecurityUserDetails {
+    private final String username;
+    private final BitSet resourceIds;
+    private final Long permissionEpoch;
+
+    public TokenUserDetails(String username, BitSet resourceIds, Long permissionEpoch) {
+        this.username = username;
+        this.resourceIds = resourceIds;
+        this.permissionEpoch = permissionEpoch;
+    }
+
+    @Override
+    public BitSet getResourceIds() {
+        return resourceIds;
+    }
+
+    @Override
+    public Long getPermissionEpoch() {
+        return permissionEpoch;
+    }
+
+    /**
+     * 资源只以ID形式保存在token中，鉴权时使用资源ID位图
+     */
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package com.macro.mall.security.component;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.core.collection.CollUtil;
+import com.macro.mall.common.service.RedisService;
+import com.macro.mall.common.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 登录用户信息本地缓存，减少每次请求获取用户信息时的网络访问
+ * 用户信息修改的事务提交后通过Redis频道通知各节点清除本地缓存；缓存从写入时开始计算超期时间，访问不会延长
+ * Created by macro on 2026/10/19.
+ */
+public class UserDetailsCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserDetailsCache.class);
+    @Autowired
+    private RedisService redisService;
+    @Autowired
+    private RedisSerializer<Object> redisSerializer;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    @Value("${redis.database}")
+    private String REDIS_DATABASE;
+    @Value("${redis.channel.userDetails:ums:userDetails:evict}")
+    private String REDIS_CHANNEL_USER_DETAILS;
+    @Value("${redis.local.userDetails.capacity:10000}")
+    private Integer LOCAL_CAPACITY;
+    @Value("${redis.local.userDetails.expire:60}")
+    private Long LOCAL_EXPIRE;
+    private Cache<String, UserDetails> localCache;
+
+    @PostConstruct
+    public void init() {
+        localCache = CacheUtil.newLRUCache(LOCAL_CAPACITY, LOCAL_EXPIRE * 1000);
+        //消息内容为用户名列表，为空时清除全部本地缓存
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            Collection<String> usernames = (Collection<String>) redisSerializer.deserialize(message.getBody());
+            if (CollUtil.isEmpty(usernames)) {
+                localCache.clear();
+                return;
+            }
+            usernames.forEach(localCache::remove);
+        }, new ChannelTopic(getChannel()));
+    }
+
+    /**
+     * 获取用户信息，本地缓存不存在时通过loader加载
+     */
+    public UserDetails get(String username, Supplier<UserDetails> loader) {
+        UserDetails userDetails = localCache.get(username, false);
+        if (userDetails == null) {
+            userDetails = loader.get();
+            if (userDetails != null) {
+                localCache.put(username, userDetails);
+            }
+        }
+        return userDetails;
+    }
+
+    /**
+     * 通知所有节点清除指定用户的本地缓存，在事务中调用时提交后再通知
+     */
+    public void evict(Collection<String> usernames) {
+        if (CollUtil.isEmpty(usernames)) {
+            return;
+        }
+        publish(new ArrayList<>(usernames));
+    }
+
+    /**
+     * 通知所有节点清除全部本地缓存，在事务中调用时提交后再通知
+     */
+    public void evictAll() {
+        publish(new ArrayList<>());
+    }
+
+    private void publish(List<String> usernames) {
+        TransactionUtil.afterCommit(() -> doPublish(usernames));
+    }
+
+    private void doPublish(List<String> usernames) {
+        try {
+            redisService.convertAndSend(getChannel(), usernames);
+        } catch (Exception e) {
+            //通知失败时至少清除本节点缓存，其他节点在缓存过期后更新
+            LOGGER.warn("发送用户信息缓存失效通知失败", e);
+            if (usernames.isEmpty()) {
+                localCache.clear();
+            } else {
+                usernames.forEach(localCache::remove);
+            }
+        }
+    }
+
+    private String getChannel() {
+        return REDIS_DATABASE + ":" + REDIS_CHANNEL_USER_DETAILS;
+    }
+}
@@ -3,6 +3,7 @@ package com.macro.mall.security.config;
 import com.macro.mall.security.component.*;
 import com.macro.mall.security.util.JwtTokenUtil;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -31,6 +32,12 @@ public class CommonSecurityConfig {
         return new JwtTokenUtil();
     }
 
+    @ConditionalOnProperty(prefix = "jwt.selfContained", name = "enabled", havingValue = "true")
+    @Bean
+    public PermissionEpochTable permissionEpochTable() {
+        return new PermissionEpochTable();
+    }
+
     @Bean
     public RestfulAccessDeniedHandler restfulAccessDeniedHandler() {
         return new RestfulAccessDeniedHandler();
@@ -41,6 +48,16 @@ public class CommonSecurityConfig {
         return new RestAuthenticationEntryPoint();
     }
 
+    @Bean
+    public CredentialVerifier credentialVerifier() {
+        return new CredentialVerifier();
+    }
+
+    @Bean
+    public UserDetailsCache userDetailsCache() {
+        return new UserDetailsCache();
+    }
+
     @Bean
     public JwtAuthenticationTokenFilter jwtAuthenticationTokenFilter(){
         return new JwtAuthenticationTokenFilter();
@@ -1,11 +1,17 @@
 package com.macro.mall.security.config;
 
+import com.macro.mall.security.util.PathPatternIndex;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * SpringSecurity白名单资源路径配置
@@ -18,4 +24,24 @@ public class IgnoreUrlsConfig {
 
     private List<String> urls = new ArrayList<>();
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private PathPatternIndex<String> urlIndex;
+
+    /**
+     * 启动时将白名单编译为路径匹配索引
+     */
+    @PostConstruct
+    public void init() {
+        urlIndex = new PathPatternIndex<>(urls.stream().distinct().collect(Collectors.toMap(Function.identity(), Function.identity())));
+    }
+
+    /**
+     * 判断请求是否在白名单中，与SpringSecurity的antMatchers一样使用servletPath及pathInfo匹配
+     */
+    public boolean isIgnored(HttpServletRequest request) {
+        String path = request.getPathInfo() == null ? request.getServletPath() : request.getServletPath() + request.getPathInfo();
+        return urlIndex.matches(path);
+    }
+
 }
@@ -1,15 +1,25 @@
 package com.macro.mall.security.util;
 
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.core.codec.Base64;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import com.macro.mall.security.component.DynamicSecurityUserDetails;
+import com.macro.mall.security.component.PermissionEpochTable;
+import com.macro.mall.security.component.TokenUserDetails;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import javax.annotation.PostConstruct;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -21,6 +31,8 @@ import java.util.Map;
  * {"alg": "HS512","typ": "JWT"}
  * payload的格式（用户名、创建时间、生成时间）：
  * {"sub":"wang","created":1489079981393,"exp":1489684781}
+ * 开启自包含token时负载中还包含资源ID位图及权限版本：
+ * {"sub":"wang","created":1489079981393,"exp":1489684781,"res":"Bg","epoch":3}
  * signature的生成算法：
  * HMACSHA512(base64UrlEncode(header) + "." +base64UrlEncode(payload),secret)
  * Created by macro on 2018/4/26.
@@ -29,12 +41,31 @@ public class JwtTokenUtil {
     private static final Logger LOGGER = LoggerFactory.getLogger(JwtTokenUtil.class);
     private static final String CLAIM_KEY_USERNAME = "sub";
     private static final String CLAIM_KEY_CREATED = "created";
+    private static final String CLAIM_KEY_RESOURCES = "res";
+    private static final String CLAIM_KEY_EPOCH = "epoch";
     @Value("${jwt.secret}")
     private String secret;
     @Value("${jwt.expiration}")
     private Long expiration;
     @Value("${jwt.tokenHead}")
     private String tokenHead;
+    @Value("${jwt.claimsCache.capacity:10000}")
+    private Integer claimsCacheCapacity;
+    @Value("${jwt.claimsCache.expire:300}")
+    private Long claimsCacheExpire;
+    @Value("${jwt.selfContained.enabled:false}")
+    private Boolean selfContained;
+    @Autowired(required = false)
+    private PermissionEpochTable permissionEpochTable;
+    /**
+     * 已验证签名的token负载缓存，key为token的摘要，避免每次请求重复计算签名
+     */
+    private Cache<String, Claims> claimsCache;
+
+    @PostConstruct
+    public void init() {
+        claimsCache = CacheUtil.newLRUCache(claimsCacheCapacity);
+    }
 
     /**
      * 根据负责生成JWT的token
@@ -48,10 +79,15 @@ public class JwtTokenUtil {
     }
 
     /**
-     * 从token中获取JWT中的负载
+     * 从token中获取JWT中的负载，验证通过的负载缓存至token过期，最长不超过缓存超期时间，访问不会延长
+     * 返回的负载为缓存对象，不可修改
      */
     private Claims getClaimsFromToken(String token) {
-        Claims claims = null;
+        String key = SecureUtil.sha256(token);
+        Claims claims = claimsCache.get(key, false);
+        if (claims != null) {
+            return claims;
+        }
         try {
             claims = Jwts.parser()
                     .setSigningKey(secret)
@@ -59,6 +95,14 @@ public class JwtTokenUtil {
                     .getBody();
         } catch (Exception e) {
             LOGGER.info("JWT格式验证失败:{}", token);
+            return null;
+        }
+        long timeout = claimsCacheExpire * 1000;
+        if (claims.getExpiration() != null) {
+            timeout = Math.min(timeout, claims.getExpiration().getTime() - System.currentTimeMillis());
+        }
+        if (timeout > 0) {
+            claimsCache.put(key, claims, timeout);
         }
         return claims;
     }
@@ -77,13 +121,34 @@ public class JwtTokenUtil {
         String username;
         try {
             Claims claims = getClaimsFromToken(token);
-            username = claims.getSubject();
+            //与重新解析一致，已过期的token不返回用户名
+            username = isExpired(claims) ? null : claims.getSubject();
         } catch (Exception e) {
             username = null;
         }
         return username;
     }
 
+    /**
+     * 从自包含token中获取用户信息，不是自包含token或权限版本已过期时返回null
+     */
+    public TokenUserDetails getUserDetailsFromToken(String token) {
+        if (!selfContained || permissionEpochTable == null) {
+            return null;
+        }
+        Claims claims = getClaimsFromToken(token);
+        if (claims == null || isExpired(claims) || claims.get(CLAIM_KEY_RESOURCES) == null || claims.get(CLAIM_KEY_EPOCH) == null) {
+            return null;
+        }
+        String username = claims.getSubject();
+        long epoch = ((Number) claims.get(CLAIM_KEY_EPOCH)).longValue();
+        if (!permissionEpochTable.isCurrent(username, epoch)) {
+            return null;
+        }
+        BitSet resourceIds = BitSet.valueOf(Base64.decode(claims.get(CLAIM_KEY_RESOURCES, String.class)));
+        return new TokenUserDetails(username, resourceIds, epoch);
+    }
+
     /**
      * 验证token是否还有效
      *
@@ -91,8 +156,16 @@ public class JwtTokenUtil {
      * @param userDetails 从数据库中查询出来的用户信息
      */
     public boolean validateToken(String token, UserDetails userDetails) {
-        String username = getUserNameFromToken(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        Claims claims = getClaimsFromToken(token);
+        return claims != null && userDetails.getUsername().equals(claims.getSubject())
+                && !claims.getExpiration().before(new Date());
+    }
+
+    /**
+     * 判断负载是否已经过期
+     */
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 
     /**
@@ -118,6 +191,13 @@ public class JwtTokenUtil {
         Map<String, Object> claims = new HashMap<>();
         claims.put(CLAIM_KEY_USERNAME, userDetails.getUsername());
         claims.put(CLAIM_KEY_CREATED, new Date());
+        //使用加载资源前读取的权限版本，加载期间权限被修改时token中的版本已过期
+        if (selfContained && permissionEpochTable != null && userDetails instanceof DynamicSecurityUserDetails
+                && ((DynamicSecurityUserDetails) userDetails).getPermissionEpoch() != null) {
+            DynamicSecurityUserDetails dynamicUserDetails = (DynamicSecurityUserDetails) userDetails;
+            claims.put(CLAIM_KEY_RESOURCES, Base64.encodeUrlSafe(dynamicUserDetails.getResourceIds().toByteArray()));
+            claims.put(CLAIM_KEY_EPOCH, dynamicUserDetails.getPermissionEpoch());
+        }
         return generateToken(claims);
     }
 
@@ -147,8 +227,10 @@ public class JwtTokenUtil {
         if(tokenRefreshJustBefore(token,30*60)){
             return token;
         }else{
-            claims.put(CLAIM_KEY_CREATED, new Date());
-            return generateToken(claims);
+            //复制负载，避免修改缓存中的对象
+            Map<String, Object> newClaims = new HashMap<>(claims);
+            newClaims.put(CLAIM_KEY_CREATED, new Date());
+            return generateToken(newClaims);
         }
     }
 
@@ -0,0 +1,125 @@
+package com.macro.mall.security.util;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的ANT路径匹配索引，匹配结果与AntPathMatcher一致
+ * 精确路径、前缀(/a/**)、后缀(/**&#47;a)及扩展名(/**&#47;*.js)形式的规则通过哈希查找匹配，
+ * 其他规则使用共享的AntPathMatcher逐个匹配
+ * Created by macro on 2026/10/19.
+ */
+public class PathPatternIndex<T> {
+    private static final String ANY_PATH = "/**";
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, List<T>> exactMap = new HashMap<>();
+    private final Map<String, List<T>> prefixMap = new HashMap<>();
+    private final Map<String, List<T>> suffixMap = new HashMap<>();
+    private final Map<String, List<T>> extensionMap = new HashMap<>();
+    private final List<String> otherPatterns = new ArrayList<>();
+    private final List<T> otherValues = new ArrayList<>();
+
+    /**
+     * @param patternMap ANT路径规则及对应的值
+     */
+    public PathPatternIndex(Map<String, T> patternMap) {
+        patternMap.forEach(this::add);
+    }
+
+    /**
+     * 获取所有匹配路径的规则对应的值
+     */
+    public List<T> match(String path) {
+        List<T> result = new ArrayList<>();
+        collect(path, result, false);
+        return result;
+    }
+
+    /**
+     * 判断路径是否匹配任一规则
+     */
+    public boolean matches(String path) {
+        List<T> result = new ArrayList<>(1);
+        collect(path, result, true);
+        return !result.isEmpty();
+    }
+
+    private void add(String pattern, T value) {
+        if (!pathMatcher.isPattern(pattern)) {
+            put(exactMap, pattern, value);
+        } else if (pattern.equals(ANY_PATH)) {
+            put(prefixMap, "", value);
+        } else if (pattern.endsWith(ANY_PATH) && !pathMatcher.isPattern(pattern.substring(0, pattern.length() - 3))) {
+            put(prefixMap, pattern.substring(0, pattern.length() - 3), value);
+        } else if (pattern.startsWith(ANY_PATH + "/*") && pattern.indexOf('/', 5) < 0
+                && !pathMatcher.isPattern(pattern.substring(5))) {
+            put(extensionMap, pattern.substring(5), value);
+        } else if (pattern.startsWith(ANY_PATH + "/") && !pathMatcher.isPattern(pattern.substring(4))) {
+            put(suffixMap, pattern.substring(4), value);
+        } else {
+            otherPatterns.add(pattern);
+            otherValues.add(value);
+        }
+    }
+
+    private void collect(String path, List<T> result, boolean first) {
+        if (addAll(result, exactMap.get(path), first)) {
+            return;
+        }
+        //前缀规则：路径本身及每一级上级路径
+        if (!prefixMap.isEmpty() && path.startsWith("/")) {
+            if (addAll(result, prefixMap.get(""), first) || addAll(result, prefixMap.get(path), first)) {
+                return;
+            }
+            for (int i = path.indexOf('/', 1); i > 0; i = path.indexOf('/', i + 1)) {
+                if (addAll(result, prefixMap.get(path.substring(0, i)), first)) {
+                    return;
+                }
+            }
+        }
+        //后缀规则：从每一个路径分隔符开始的子路径
+        if (!suffixMap.isEmpty() && path.startsWith("/")) {
+            for (int i = path.indexOf('/'); i >= 0; i = path.indexOf('/', i + 1)) {
+                if (addAll(result, suffixMap.get(path.substring(i + 1)), first)) {
+                    return;
+                }
+            }
+        }
+        //扩展名规则：最后一级路径的每一个后缀
+        if (!extensionMap.isEmpty() && path.startsWith("/")) {
+            String lastSegment = path.substring(path.lastIndexOf('/') + 1);
+            for (int i = 0; i <= lastSegment.length(); i++) {
+                if (addAll(result, extensionMap.get(lastSegment.substring(i)), first)) {
+                    return;
+                }
+            }
+        }
+        for (int i = 0; i < otherPatterns.size(); i++) {
+            if (pathMatcher.match(otherPatterns.get(i), path)) {
+                result.add(otherValues.get(i));
+                if (first) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 只需要第一个匹配结果且已匹配时返回true
+     */
+    private boolean addAll(List<T> result, List<T> values, boolean first) {
+        if (values == null) {
+            return false;
+        }
+        result.addAll(values);
+        return first;
+    }
+
+    private void put(Map<String, List<T>> map, String key, T value) {
+        map.computeIfAbsent(key, k -> new ArrayList<>(1)).add(value);
+    }
+}
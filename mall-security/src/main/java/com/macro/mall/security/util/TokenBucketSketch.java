@@ -0,0 +1,66 @@
+package com.macro.mall.security.util;
+
+import cn.hutool.core.util.HashUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 基于Count-Min Sketch的令牌桶限流，使用固定大小的数组保存任意数量key的令牌桶
+ * 每个key通过相互独立的哈希函数映射到每行中的一个桶，只有所有桶都有令牌时才允许通过；
+ * 哈希冲突只会使限流更严格，不会放过超出限制的请求
+ * Created by macro on 2026/10/19.
+ */
+public class TokenBucketSketch {
+    private static final int DEPTH = 2;
+    private final int width;
+    private final double burst;
+    private final double ratePerNano;
+    private final double[] tokens;
+    private final long[] refillTimes;
+
+    /**
+     * @param width         每行桶的数量
+     * @param burst         桶容量，即允许的突发请求数
+     * @param ratePerSecond 每秒补充的令牌数
+     */
+    public TokenBucketSketch(int width, double burst, double ratePerSecond) {
+        this.width = width;
+        this.burst = burst;
+        this.ratePerNano = ratePerSecond / 1_000_000_000d;
+        this.tokens = new double[DEPTH * width];
+        this.refillTimes = new long[DEPTH * width];
+        Arrays.fill(tokens, burst);
+        Arrays.fill(refillTimes, System.nanoTime());
+    }
+
+    /**
+     * 尝试获取一个令牌
+     */
+    public synchronized boolean tryAcquire(String key) {
+        long now = System.nanoTime();
+        int[] hashes = hash(key);
+        int[] indexes = new int[DEPTH];
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * width + Math.floorMod(hashes[row], width);
+            double available = Math.min(burst, tokens[index] + (now - refillTimes[index]) * ratePerNano);
+            tokens[index] = available;
+            refillTimes[index] = now;
+            if (available < 1) {
+                return false;
+            }
+            indexes[row] = index;
+        }
+        for (int index : indexes) {
+            tokens[index] -= 1;
+        }
+        return true;
+    }
+
+    /**
+     * 每一行使用不同的哈希算法，避免在一行中冲突的key在所有行中都冲突
+     */
+    private static int[] hash(String key) {
+        return new int[]{HashUtil.murmur32(key.getBytes(StandardCharsets.UTF_8)), HashUtil.fnvHash(key)};
+    }
+}